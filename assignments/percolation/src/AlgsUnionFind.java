@@ -0,0 +1,66 @@
+/**
+ *
+ * Compilation: javac AlgsUnionFind.java
+ * Execution: none (library class)
+ *
+ * UnionFind backed by algs4's WeightedQuickUnionUF, kept as the reference
+ * implementation to compare WeightedUnionFind and HalvingUnionFind against.
+ * The engines default to WeightedUnionFind (UnionFindKind.WEIGHTED) instead,
+ * since this one allocates a new WeightedQuickUnionUF on every reset().
+ *
+ */
+
+public final class AlgsUnionFind implements UnionFind
+{
+    private final int n;
+    private WeightedQuickUnionUF uf;
+
+    /**
+     * @param n number of elements
+     */
+    public AlgsUnionFind(int n)
+    {
+        this.n  = n;
+        this.uf = new WeightedQuickUnionUF(n);
+    }
+
+    @Override
+    public int find(int p)
+    {
+        return uf.find(p);
+    }
+
+    @Override
+    public void union(int p, int q)
+    {
+        uf.union(p, q);
+    }
+
+    @Override
+    public int link(int rootP, int rootQ)
+    {
+        uf.union(rootP, rootQ);
+        return uf.find(rootP);
+    }
+
+    @Override
+    public boolean connected(int p, int q)
+    {
+        return uf.connected(p, q);
+    }
+
+    @Override
+    public int count()
+    {
+        return uf.count();
+    }
+
+    /**
+     * WeightedQuickUnionUF cannot be reset in place, so this allocates a new one
+     */
+    @Override
+    public void reset()
+    {
+        uf = new WeightedQuickUnionUF(n);
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ *
+ * Compilation: javac BitSlicedPercolation.java
+ * Execution: java BitSlicedPercolation 100 0.593 42
+ *
+ * 64 independent N x N site percolation systems at once. Each site is a
+ * long whose bit k belongs to realization k, so occupying a site and
+ * propagating fullness across it are single bitwise operations for all 64
+ * grids together.
+ *
+ * Full sites are found by flooding from the top row: a down sweep lets
+ * each row take the fullness of the row above (AND open) and then spreads
+ * it left and right within the row; an up sweep does the same from the
+ * row below. Sweeps alternate until nothing changes, after which the
+ * percolating realizations are the bits of the OR of the bottom row.
+ *
+ */
+
+public class BitSlicedPercolation
+{
+    private final int N;
+    private final long[] open;      // Row-major, bit k = site open in realization k
+    private final long[] full;      // Row-major, bit k = site full in realization k
+
+    /**
+     * Creates storage for 64 N-by-N grids
+     *
+     * @param N grid size
+     */
+    public BitSlicedPercolation(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N    = N;
+        this.open = new long[N * N];
+        this.full = new long[N * N];
+    }
+
+    /**
+     * Occupies every site of all 64 grids independently with probability p
+     * and floods them.
+     *
+     * @param p      site occupation probability
+     * @param random random stream
+     * @return mask of the realizations that percolate
+     */
+    public long run(double p, SplitMix64 random)
+    {
+        for (int s = 0; s < open.length; s++)
+        {
+            open[s] = random.bernoulliMask(p);
+        }
+        return flood();
+    }
+
+    /**
+     * Computes the full sites of all 64 grids from the open sites
+     *
+     * @return mask of the realizations that percolate
+     */
+    private long flood()
+    {
+        System.arraycopy(open, 0, full, 0, N);
+        for (int s = N; s < full.length; s++)
+        {
+            full[s] = 0L;
+        }
+        spreadRow(0);
+
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (int r = 1; r < N; r++)
+            {
+                changed |= pull(r, r - 1);
+            }
+            for (int r = N - 2; r >= 0; r--)
+            {
+                changed |= pull(r, r + 1);
+            }
+        }
+
+        long percolates = 0L;
+        for (int c = 0; c < N; c++)
+        {
+            percolates |= full[(N - 1) * N + c];
+        }
+        return percolates;
+    }
+
+    /**
+     * Lets row r take the fullness of the adjacent row from, then spreads
+     * it within row r
+     *
+     * @return true if any site of row r became full
+     */
+    private boolean pull(int r, int from)
+    {
+        int base  = r * N;
+        int other = from * N;
+        long added = 0L;
+        for (int c = 0; c < N; c++)
+        {
+            long f = full[base + c] | (full[other + c] & open[base + c]);
+            added |= f ^ full[base + c];
+            full[base + c] = f;
+        }
+        if (added == 0L) return false;
+
+        spreadRow(r);
+        return true;
+    }
+
+    /**
+     * Spreads fullness left and right along open sites of row r; one pass
+     * in each direction reaches every site of a horizontal run
+     */
+    private void spreadRow(int r)
+    {
+        int base = r * N;
+        for (int c = base + 1; c < base + N; c++)
+        {
+            full[c] |= full[c - 1] & open[c];
+        }
+        for (int c = base + N - 2; c >= base; c--)
+        {
+            full[c] |= full[c + 1] & open[c];
+        }
+    }
+
+    /**
+     * @param i row index
+     * @param j column index
+     * @return mask of the realizations in which site (i, j) is open
+     */
+    public long openMask(int i, int j)
+    {
+        return open[index(i, j)];
+    }
+
+    /**
+     * @param i row index
+     * @param j column index
+     * @return mask of the realizations in which site (i, j) is full
+     */
+    public long fullMask(int i, int j)
+    {
+        return full[index(i, j)];
+    }
+
+    private int index(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Runs 64 realizations at probability p and prints how many percolate.
+     *
+     * @param args N, p and a seed
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 3)
+        {
+            throw new IllegalArgumentException("Provide 3 arguments: main(N,p,seed)");
+        }
+
+        int N    = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+        BitSlicedPercolation grids = new BitSlicedPercolation(N);
+        long mask = grids.run(p, new SplitMix64(Long.parseLong(args[2])));
+
+        System.out.println(Long.bitCount(mask) + " of 64 realizations percolate");
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ *
+ * Compilation: javac BitboardPercolation.java
+ * Execution: java BitboardPercolation 1000 0.593 42
+ *
+ * Percolation for grids that are filled wholesale, for example at a fixed
+ * occupation probability. Instead of a union per neighbour, the full sites
+ * are computed 64 at a time on the row words of an OpenSites bitmap:
+ *
+ *   - within a row, fullness spreads along runs of open sites. Towards
+ *     higher columns this is one carry chain: adding the full bits to the
+ *     open bits carries through the rest of each run, so
+ *     ((open + full) ^ open) & open marks it (with the carry passed from
+ *     word to word). Towards lower columns the same is done on the
+ *     bit-reversed row.
+ *   - between rows, a row takes the full sites of its neighbour AND its
+ *     own open sites, then spreads them within the row.
+ *
+ * Down and up sweeps alternate until no row changes. open() may still be
+ * called; it only marks the full sites stale, and they are recomputed on
+ * the next query, so this engine is meant for grids queried after being
+ * filled, not for opening sites one at a time.
+ *
+ */
+
+public class BitboardPercolation implements PercolationEngine
+{
+    private final int N;
+    private final int words;            // Words per row
+    private final OpenSites opened;
+    private final OpenSites full;
+    private final long[] scratch;       // One bit-reversed row
+    private boolean stale;
+    private boolean percolates;
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked
+     *
+     * @param N grid size
+     */
+    public BitboardPercolation(int N)
+    {
+        this(new OpenSites(N));
+    }
+
+    /**
+     * Creates a grid with the open sites of a square bitmap, which is used
+     * as is (not copied)
+     *
+     * @param sites N-by-N open sites
+     */
+    public BitboardPercolation(OpenSites sites)
+    {
+        if (sites.rows() != sites.cols())
+        {
+            throw new IllegalArgumentException("sites must be square: " + sites.rows() + " x " + sites.cols());
+        }
+
+        this.N       = sites.rows();
+        this.words   = sites.wordsPerRow();
+        this.opened  = sites;
+        this.full    = new OpenSites(N);
+        this.scratch = new long[words];
+        this.stale   = true;
+    }
+
+    /**
+     * Creates an N-by-N grid whose sites are open independently with
+     * probability p, 64 sites per random mask
+     *
+     * @param N      grid size
+     * @param p      site occupation probability
+     * @param random random stream
+     * @return the filled grid
+     */
+    public static BitboardPercolation random(int N, double p, SplitMix64 random)
+    {
+        OpenSites sites = new OpenSites(N);
+        for (int r = 0; r < N; r++)
+        {
+            for (int w = 0; w < sites.wordsPerRow(); w++)
+            {
+                sites.setWord(r, w, random.bernoulliMask(p));
+            }
+        }
+        return new BitboardPercolation(sites);
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+
+        if (opened.open(i - 1, j - 1)) stale = true;
+    }
+
+    /**
+     * Is site (row i, column j) open?
+     *
+     * @param i
+     * @param j
+     * @return true if the site site at location i,j is open
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return opened.isOpen(i - 1, j - 1);
+    }
+
+    /**
+     * Is site (row i, column j) full?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+        if (stale) flood();
+
+        return full.isOpen(i - 1, j - 1);
+    }
+
+    /**
+     *
+     * @return true if the grid percolates
+     */
+    @Override
+    public boolean percolates()
+    {
+        if (stale) flood();
+
+        return percolates;
+    }
+
+    /**
+     * @return number of full sites
+     */
+    public long numberOfFullSites()
+    {
+        if (stale) flood();
+
+        return full.count();
+    }
+
+    /**
+     * Recomputes the full sites from scratch
+     */
+    private void flood()
+    {
+        full.clear();
+        for (int w = 0; w < words; w++)
+        {
+            full.setWord(0, w, opened.word(0, w));
+        }
+        spreadRow(0);
+
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (int r = 1; r < N; r++)
+            {
+                changed |= pull(r, r - 1);
+            }
+            for (int r = N - 2; r >= 0; r--)
+            {
+                changed |= pull(r, r + 1);
+            }
+        }
+
+        percolates = full.countInRow(N - 1) > 0;
+        stale = false;
+    }
+
+    /**
+     * Lets row r take the full sites of row from, then spreads them in row r
+     *
+     * @return true if any site of row r became full
+     */
+    private boolean pull(int r, int from)
+    {
+        boolean added = false;
+        for (int w = 0; w < words; w++)
+        {
+            long current = full.word(r, w);
+            long next    = current | (full.word(from, w) & opened.word(r, w));
+            if (next != current)
+            {
+                full.setWord(r, w, next);
+                added = true;
+            }
+        }
+        if (added) spreadRow(r);
+        return added;
+    }
+
+    /**
+     * Extends the full sites of row r to the whole open runs containing them
+     */
+    private void spreadRow(int r)
+    {
+        // Towards higher columns: a carry chain through each run
+        long carry = 0L;
+        for (int w = 0; w < words; w++)
+        {
+            long open = opened.word(r, w);
+            long seed = full.word(r, w);
+            long sum  = open + seed + carry;
+            carry = Long.compareUnsigned(open + seed, open) < 0
+                    || (carry != 0 && sum == 0) ? 1L : 0L;
+            full.setWord(r, w, seed | ((sum ^ open) & open));
+        }
+
+        // Towards lower columns: the same on the bit-reversed row
+        carry = 0L;
+        for (int w = words - 1; w >= 0; w--)
+        {
+            long open = Long.reverse(opened.word(r, w));
+            long seed = Long.reverse(full.word(r, w));
+            long sum  = open + seed + carry;
+            carry = Long.compareUnsigned(open + seed, open) < 0
+                    || (carry != 0 && sum == 0) ? 1L : 0L;
+            scratch[w] = Long.reverse(seed | ((sum ^ open) & open));
+        }
+        for (int w = 0; w < words; w++)
+        {
+            full.setWord(r, w, scratch[w]);
+        }
+    }
+
+    /**
+     * Fills an N-by-N grid at probability p and prints whether it percolates.
+     *
+     * @param args N, p and a seed
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 3)
+        {
+            throw new IllegalArgumentException("Provide 3 arguments: main(N,p,seed)");
+        }
+
+        int N    = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+        Stopwatch sw = new Stopwatch();
+        BitboardPercolation grid = random(N, p, new SplitMix64(Long.parseLong(args[2])));
+
+        System.out.println("percolates              = " + grid.percolates());
+        System.out.println("full sites              = " + grid.numberOfFullSites());
+        System.out.println("elapsed time            = " + sw.elapsedTime());
+    }
+}
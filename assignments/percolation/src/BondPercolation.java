@@ -0,0 +1,298 @@
+/**
+ *
+ * Compilation: javac BondPercolation.java
+ * Execution: java BondPercolation 100 42
+ *
+ * Bond percolation on an N-by-N grid. Every site is always open; what is
+ * opened at random are the bonds between neighbouring sites, 2N(N - 1) of
+ * them. Open bonds are kept in two OpenSites bitsets, one for the N x (N - 1)
+ * horizontal bonds and one for the (N - 1) x N vertical bonds. The sites are
+ * joined on a single UnionFind with TOP and BOTTOM flags at the roots, as
+ * in CompactPercolation, so there is no backwash.
+ *
+ * Bonds are numbered 0 .. 2N(N - 1) - 1: first the horizontal bonds in
+ * row-major order, then the vertical ones, which lets SiteOrder draw a
+ * random bond order and PercolationStats run bond trials through the same
+ * pipeline as site trials (EngineKind.BOND). The threshold of bond
+ * percolation on the square lattice is exactly 1/2.
+ *
+ */
+
+public class BondPercolation implements PercolationEngine
+{
+    private static final byte TOP    = 1;
+    private static final byte BOTTOM = 2;
+
+    private final int N;
+    private final int horizontalBonds;
+    private final OpenSites horizontal;     // bond (r, c) joins sites (r, c) and (r, c + 1)
+    private final OpenSites vertical;       // bond (r, c) joins sites (r, c) and (r + 1, c)
+    private final byte[] state;             // TOP/BOTTOM, valid at roots
+    private final UnionFind uf;
+    private boolean percolates;
+
+    /**
+     * Creates an N-by-N grid with all bonds closed
+     *
+     * @param N
+     */
+    public BondPercolation(int N)
+    {
+        this(N, UnionFindKind.HALVING);
+    }
+
+    /**
+     * Creates an N-by-N grid with all bonds closed, on the given union-find
+     * implementation
+     *
+     * @param N
+     * @param kind union-find implementation
+     */
+    public BondPercolation(int N, UnionFindKind kind)
+    {
+        if (N < 2) throw new IllegalArgumentException("gridSize (N) must be > 1 to have bonds");
+
+        this.N               = N;
+        this.horizontalBonds = N * (N - 1);
+        this.horizontal      = new OpenSites(N, N - 1);
+        this.vertical        = new OpenSites(N - 1, N);
+        this.state           = new byte[N * N];
+        this.uf              = kind.create(N * N);
+        initFlags();
+    }
+
+    private void initFlags()
+    {
+        for (int c = 0; c < N; c++)
+        {
+            state[c]               = TOP;
+            state[(N - 1) * N + c] = BOTTOM;
+        }
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Opens the bond between site (i, j) and site (i, j + 1)
+     *
+     * @param i row, 1 .. N
+     * @param j column, 1 .. N - 1
+     */
+    public void openHorizontal(int i, int j)
+    {
+        validateIndices(i, j);
+        if (j == N) throw new IndexOutOfBoundsException("column index j out of bounds");
+
+        if (horizontal.open(i - 1, j - 1))
+        {
+            connect(xyTo1D(i, j), xyTo1D(i, j) + 1);
+        }
+    }
+
+    /**
+     * Opens the bond between site (i, j) and site (i + 1, j)
+     *
+     * @param i row, 1 .. N - 1
+     * @param j column, 1 .. N
+     */
+    public void openVertical(int i, int j)
+    {
+        validateIndices(i, j);
+        if (i == N) throw new IndexOutOfBoundsException("row index i out of bounds");
+
+        if (vertical.open(i - 1, j - 1))
+        {
+            connect(xyTo1D(i, j), xyTo1D(i, j) + N);
+        }
+    }
+
+    /**
+     * Opens a bond by number: horizontal bonds come first, in row-major
+     * order, then vertical bonds
+     *
+     * @param bond bond number, 0 .. bonds() - 1
+     */
+    public void openBond(int bond)
+    {
+        if (bond < 0 || bond >= 2 * horizontalBonds)
+        {
+            throw new IndexOutOfBoundsException("bond out of bounds: " + bond);
+        }
+
+        if (bond < horizontalBonds)
+        {
+            int r = bond / (N - 1);
+            int c = bond % (N - 1);
+            if (horizontal.open(r, c)) connect(r * N + c, r * N + c + 1);
+        }
+        else
+        {
+            int v = bond - horizontalBonds;
+            if (vertical.open(v / N, v % N)) connect(v, v + N);
+        }
+    }
+
+    /**
+     * Joins two sites and merges the flags of their components
+     */
+    private void connect(int p, int q)
+    {
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if (rootP == rootQ) return;
+
+        byte merged = (byte) (state[rootP] | state[rootQ]);
+        int root = uf.link(rootP, rootQ);
+        state[root] = merged;
+        if (merged == (TOP | BOTTOM)) percolates = true;
+    }
+
+    /**
+     * @param i row, 1 .. N
+     * @param j column, 1 .. N - 1
+     * @return true if the bond between (i, j) and (i, j + 1) is open
+     */
+    public boolean isHorizontalOpen(int i, int j)
+    {
+        validateIndices(i, j);
+        if (j == N) throw new IndexOutOfBoundsException("column index j out of bounds");
+
+        return horizontal.isOpen(i - 1, j - 1);
+    }
+
+    /**
+     * @param i row, 1 .. N - 1
+     * @param j column, 1 .. N
+     * @return true if the bond between (i, j) and (i + 1, j) is open
+     */
+    public boolean isVerticalOpen(int i, int j)
+    {
+        validateIndices(i, j);
+        if (i == N) throw new IndexOutOfBoundsException("row index i out of bounds");
+
+        return vertical.isOpen(i - 1, j - 1);
+    }
+
+    /**
+     * Sites are always open in bond percolation, so this only checks the
+     * indices
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+    }
+
+    /**
+     * Sites are always open in bond percolation
+     *
+     * @param i
+     * @param j
+     * @return true
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return true;
+    }
+
+    /**
+     * Is site (row i, column j) connected to the top row through open bonds?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return (state[uf.find(xyTo1D(i, j))] & TOP) != 0;
+    }
+
+    /**
+     *
+     * @return true if open bonds connect the top row to the bottom row
+     */
+    @Override
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * @return number of bonds, 2N(N - 1)
+     */
+    public int bonds()
+    {
+        return 2 * horizontalBonds;
+    }
+
+    /**
+     * @return number of open bonds
+     */
+    public int numberOfOpenBonds()
+    {
+        return (int) (horizontal.count() + vertical.count());
+    }
+
+    /**
+     * Closes every bond again, reusing the arrays, so that one instance can
+     * run many trials
+     */
+    public void reset()
+    {
+        horizontal.clear();
+        vertical.clear();
+        java.util.Arrays.fill(state, (byte) 0);
+        initFlags();
+        uf.reset();
+        percolates = false;
+    }
+
+    private int xyTo1D(int i, int j)
+    {
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Opens the bonds of an N-by-N grid in random order until it percolates
+     * and prints the fraction of open bonds at that moment.
+     *
+     * @param args N and a seed
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 2)
+        {
+            throw new IllegalArgumentException("Provide 2 arguments: main(N,seed)");
+        }
+
+        int N = Integer.parseInt(args[0]);
+        BondPercolation percolation = new BondPercolation(N);
+        SiteOrder order = SiteOrder.ofSize(percolation.bonds(), new SplitMix64(Long.parseLong(args[1])));
+        while (!percolation.percolates())
+        {
+            percolation.openBond(order.next());
+        }
+
+        System.out.println("open bonds              = " + order.count() + " of " + order.size());
+        System.out.println("threshold               = " + order.count() / (double) order.size());
+    }
+}
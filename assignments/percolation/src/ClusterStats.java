@@ -0,0 +1,175 @@
+/**
+ *
+ * Compilation: javac ClusterStats.java
+ * Execution: none (library class)
+ *
+ * Cluster statistics of a grid kept up to date as sites are opened: the
+ * number of clusters, the largest cluster size, the sum of squared cluster
+ * sizes and the histogram of cluster sizes. Sites are added and merged
+ * through a union-find of their own, without virtual sites, so that every
+ * root holds the exact size of its cluster; the parent array stores -size
+ * at a root, as in the Newman-Ziff paper. Each add() and each merge updates
+ * the counters and the histogram in O(1), so no query ever has to rescan
+ * the grid. Percolation and NewmanZiff both keep their clusters here.
+ *
+ */
+
+public final class ClusterStats
+{
+    private static final int EMPTY = Integer.MIN_VALUE;   // site not added
+
+    private final int[] parent;         // parent site, or -size at a root
+    private final int[] histogram;      // histogram[s] = number of clusters of size s
+    private int clusters;
+    private int largest;
+    private long sumSquares;            // Sum of squared cluster sizes
+
+    /**
+     * @param sites number of sites, 0 .. sites - 1
+     */
+    public ClusterStats(int sites)
+    {
+        if (sites < 0) throw new IllegalArgumentException("sites must be >= 0: " + sites);
+
+        this.parent    = new int[sites];
+        this.histogram = new int[sites + 1];
+        java.util.Arrays.fill(parent, EMPTY);
+    }
+
+    /**
+     * Adds a site as a cluster of its own; does nothing if it was already added
+     *
+     * @param site site number
+     */
+    public void add(int site)
+    {
+        if (parent[site] != EMPTY) return;
+
+        parent[site] = -1;
+        histogram[1]++;
+        clusters++;
+        sumSquares += 1;
+        if (largest == 0) largest = 1;
+    }
+
+    /**
+     * @param site site number
+     * @return whether the site was added
+     */
+    public boolean contains(int site)
+    {
+        return parent[site] != EMPTY;
+    }
+
+    /**
+     * Merges the clusters of two added sites; on equal sizes the root of p's
+     * cluster stays the root
+     *
+     * @param p site number
+     * @param q site number
+     * @return root of the merged cluster
+     */
+    public int union(int p, int q)
+    {
+        int rootP = root(p);
+        int rootQ = root(q);
+        if (rootP == rootQ) return rootP;
+
+        int sizeP = -parent[rootP];
+        int sizeQ = -parent[rootQ];
+        int size  = sizeP + sizeQ;
+
+        // Union by size: the smaller cluster goes under the larger one
+        if (sizeP < sizeQ)
+        {
+            parent[rootP] = rootQ;
+            parent[rootQ] = -size;
+        }
+        else
+        {
+            parent[rootQ] = rootP;
+            parent[rootP] = -size;
+        }
+
+        histogram[sizeP]--;
+        histogram[sizeQ]--;
+        histogram[size]++;
+        clusters--;
+        sumSquares += 2L * sizeP * sizeQ;
+        if (size > largest) largest = size;
+        return sizeP < sizeQ ? rootQ : rootP;
+    }
+
+    /**
+     * Finds the root of an added site, halving the path on the way
+     *
+     * @param p site number
+     * @return root site of its cluster
+     */
+    public int root(int p)
+    {
+        while (parent[p] >= 0)
+        {
+            int up = parent[p];
+            if (parent[up] >= 0) parent[p] = parent[up];
+            p = up;
+        }
+        return p;
+    }
+
+    /**
+     * @param site site number
+     * @return size of the cluster containing the site, 0 if it was not added
+     */
+    public int clusterSize(int site)
+    {
+        if (parent[site] == EMPTY) return 0;
+        return -parent[root(site)];
+    }
+
+    /**
+     * @return number of clusters
+     */
+    public int clusters()
+    {
+        return clusters;
+    }
+
+    /**
+     * @return size of the largest cluster, 0 if no site was added
+     */
+    public int largest()
+    {
+        return largest;
+    }
+
+    /**
+     * @return sum of the squared sizes of all clusters
+     */
+    public long sumOfSquares()
+    {
+        return sumSquares;
+    }
+
+    /**
+     * @param size cluster size
+     * @return number of clusters with exactly that many sites
+     */
+    public int clustersOfSize(int size)
+    {
+        if (size <= 0 || size >= histogram.length) return 0;
+        return histogram[size];
+    }
+
+    /**
+     * Removes every site
+     */
+    public void reset()
+    {
+        java.util.Arrays.fill(parent, EMPTY);
+        java.util.Arrays.fill(histogram, 0);
+        clusters   = 0;
+        largest    = 0;
+        sumSquares = 0;
+    }
+}
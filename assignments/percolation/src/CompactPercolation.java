@@ -0,0 +1,206 @@
+/**
+ *
+ * Compilation: javac CompactPercolation.java
+ * Execution: java CompactPercolation 100
+ *
+ * Percolation with a single union-find structure and no virtual
+ * top or bottom sites. Every component root carries two flags, "touches top"
+ * and "touches bottom", which are OR-ed together whenever two components are
+ * merged. A site is full when its root touches the top and the system
+ * percolates as soon as one root touches both, so there is no backwash and
+ * each open() does half the union work of Percolation with half the memory.
+ *
+ */
+
+public class CompactPercolation implements PercolationEngine
+{
+    private static final byte OPEN   = 1;
+    private static final byte TOP    = 2;
+    private static final byte BOTTOM = 4;
+
+    private final int N;
+    private final byte[] state;     // OPEN per site, TOP/BOTTOM valid at roots
+    private final UnionFind uf;
+    private boolean percolates;
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked
+     *
+     * @param N
+     */
+    public CompactPercolation(int N)
+    {
+        this(N, UnionFindKind.WEIGHTED);
+    }
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked, on the given union-find
+     * implementation
+     *
+     * @param N
+     * @param kind union-find implementation
+     */
+    public CompactPercolation(int N, UnionFindKind kind)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N     = N;
+        this.state = new byte[N * N];
+        this.uf    = kind.create(N * N);
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        if (state[site] != 0) return;
+
+        byte flags = OPEN;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        state[site] = flags;
+
+        // The new site is its own root; keep track of the merged root so
+        // each neighbour costs a single find()
+        int root = site;
+        if (i > 1 && state[site - N] != 0) root = connect(root, site - N);
+        if (i < N && state[site + N] != 0) root = connect(root, site + N);
+        if (j > 1 && state[site - 1] != 0) root = connect(root, site - 1);
+        if (j < N && state[site + 1] != 0) root = connect(root, site + 1);
+
+        if ((state[root] & (TOP | BOTTOM)) == (TOP | BOTTOM))
+        {
+            percolates = true;
+        }
+    }
+
+    /**
+     * Merges the component rooted at root with the component of open site q
+     * and merges their flags
+     *
+     * @return root of the merged component
+     */
+    private int connect(int root, int q)
+    {
+        int rootQ = uf.find(q);
+        if (rootQ == root) return root;
+
+        byte merged = (byte) (state[root] | state[rootQ]);
+        root = uf.link(root, rootQ);
+        state[root] = merged;
+        return root;
+    }
+
+    /**
+     * Is site (row i, column j) open?
+     *
+     * @param i
+     * @param j
+     * @return true if the site site at location i,j is open
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return state[xyTo1D(i, j)] != 0;
+    }
+
+    /**
+     * Is site (row i, column j) full?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        return state[site] != 0 && (state[uf.find(site)] & TOP) != 0;
+    }
+
+    /**
+     *
+     * @return true if the grid percolates
+     */
+    @Override
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * Blocks every site again, reusing the arrays, so that one instance can
+     * run many trials
+     */
+    public void reset()
+    {
+        java.util.Arrays.fill(state, (byte) 0);
+        uf.reset();
+        percolates = false;
+    }
+
+    private int xyTo1D(int i, int j)
+    {
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Unit test.
+     *
+     * @param args number of elements (N) in NxN matrix to use in test simulation
+     *
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            throw new Exception("Provide N as the first argument!");
+        }
+
+        int N = Integer.parseInt(args[0]);
+        CompactPercolation percolation = new CompactPercolation(N);
+        int midCol = N / 2 + 1;
+
+        for (int i = 1; i <= N; i++)
+        {
+            percolation.open(i, midCol);
+        }
+
+        if (!percolation.isFull(N, midCol))
+        {
+            throw new Exception("Test failed! Site should be full!");
+        }
+
+        if (!percolation.percolates())
+        {
+            throw new Exception("Test failed! System should percolate!");
+        }
+
+        System.out.println("Test status: success!");
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ *
+ * Compilation: javac ConcurrentPercolation.java
+ * Execution: java ConcurrentPercolation 2000 8 42
+ *
+ * Thread-safe percolation for opening sites of one large grid from several
+ * threads at once. Open sites are bits of an AtomicLongArray set with
+ * compareAndSet, and connectivity is kept in two lock-free
+ * ConcurrentUnionFind structures, like Percolation (one with only the
+ * virtual top for isFull(), one with both virtual sites for
+ * percolates()), so there is no backwash.
+ *
+ * Every open() sets the site's bit before it looks at the neighbours, so
+ * when two neighbours are opened at the same time at least one of the two
+ * calls sees the other one open and unites them.
+ *
+ * The operations are linearizable, and nothing takes a lock. An open()
+ * takes effect when it sets the site's bit, but its unions with the
+ * neighbours and the virtual sites follow in several steps, so the
+ * union-finds can lag behind the open bits. They never run ahead of them:
+ * every union joins sites whose bits are set. A connection the union-finds
+ * report is therefore already there among the open sites, and isFull() and
+ * percolates() return true at once. To answer false, a query has to see the
+ * union-finds while no open() is between its bit and its last union. Each
+ * open() counts itself as started before it sets the bit and as finished
+ * after its last union, in per-thread stripes of counters so the openers do
+ * not share a cache line. A query reads every finished count, then every
+ * started count: if the totals are equal, no open() was in progress between
+ * the two reads. It then consults the union-finds and reads the started
+ * counts again; if none has moved, the union-finds held exactly the open
+ * sites all along and the answer is returned, otherwise the query tries
+ * again. numberOfOpenSites() sums the per-stripe open counts the same way.
+ *
+ * So open() never waits for anything, and a query that answers false, or
+ * counts the open sites, only retries while opens keep starting under it.
+ * isOpen() reads the bit alone.
+ *
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ConcurrentPercolation implements PercolationEngine
+{
+    // Counters of a stripe, 16 longs apart so stripes never share a cache line
+    private static final int STARTED  = 0;
+    private static final int FINISHED = 1;
+    private static final int OPENED   = 2;
+    private static final int STRIDE   = 16;
+
+    private final int N;
+    private final int virtualTop;
+    private final int virtualBottom;
+    private final AtomicLongArray opened;
+    private final ConcurrentUnionFind ufTop;
+    private final ConcurrentUnionFind ufBottom;
+    private final AtomicLongArray counts;   // STARTED, FINISHED, OPENED per stripe
+    private final int stripes;              // a power of two
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked
+     *
+     * @param N
+     */
+    public ConcurrentPercolation(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N             = N;
+        this.virtualTop    = N * N;
+        this.virtualBottom = N * N + 1;
+        this.opened        = new AtomicLongArray((N * N + 63) >>> 6);
+        this.ufTop         = new ConcurrentUnionFind(N * N + 1);
+        this.ufBottom      = new ConcurrentUnionFind(N * N + 2);
+        this.stripes       = Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1);
+        this.counts        = new AtomicLongArray(stripes * STRIDE);
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        if (isOpen(site)) return;
+
+        int stripe = (int) Thread.currentThread().getId() & (stripes - 1);
+        counts.incrementAndGet(stripe * STRIDE + STARTED);
+        try
+        {
+            if (!setOpen(site)) return;
+            counts.incrementAndGet(stripe * STRIDE + OPENED);
+
+            if (i > 1 && isOpen(site - N)) connect(site, site - N);
+            if (i < N && isOpen(site + N)) connect(site, site + N);
+            if (j > 1 && isOpen(site - 1)) connect(site, site - 1);
+            if (j < N && isOpen(site + 1)) connect(site, site + 1);
+
+            if (i == 1) connect(site, virtualTop);
+            if (i == N) ufBottom.union(site, virtualBottom);
+        }
+        finally
+        {
+            counts.incrementAndGet(stripe * STRIDE + FINISHED);
+        }
+    }
+
+    private void connect(int p, int q)
+    {
+        ufTop.union(p, q);
+        ufBottom.union(p, q);
+    }
+
+    /**
+     * Sets the open bit of a site
+     *
+     * @return true if this call opened it
+     */
+    private boolean setOpen(int site)
+    {
+        int  index = site >>> 6;
+        long bit   = 1L << site;
+        while (true)
+        {
+            long word = opened.get(index);
+            if ((word & bit) != 0) return false;
+            if (opened.compareAndSet(index, word, word | bit)) return true;
+        }
+    }
+
+    private boolean isOpen(int site)
+    {
+        return (opened.get(site >>> 6) & (1L << site)) != 0;
+    }
+
+    /**
+     * Is site (row i, column j) open?
+     *
+     * @param i
+     * @param j
+     * @return true if the site site at location i,j is open
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return isOpen(xyTo1D(i, j));
+    }
+
+    /**
+     * Is site (row i, column j) full?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        if (!isOpen(site)) return false;
+        while (true)
+        {
+            if (ufTop.connected(site, virtualTop)) return true;
+
+            long started = quiescentStarts();
+            if (started >= 0)
+            {
+                boolean full = ufTop.connected(site, virtualTop);
+                if (sum(STARTED) == started) return full;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     *
+     * @return true if the grid percolates
+     */
+    @Override
+    public boolean percolates()
+    {
+        while (true)
+        {
+            if (ufBottom.connected(virtualTop, virtualBottom)) return true;
+
+            long started = quiescentStarts();
+            if (started >= 0)
+            {
+                boolean percolates = ufBottom.connected(virtualTop, virtualBottom);
+                if (sum(STARTED) == started) return percolates;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * @return number of open sites
+     */
+    public int numberOfOpenSites()
+    {
+        while (true)
+        {
+            long started = quiescentStarts();
+            if (started >= 0)
+            {
+                long open = sum(OPENED);
+                if (sum(STARTED) == started) return (int) open;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Reads every finished count, then every started count. Counts only
+     * grow and an open() finishes after it starts, so equal totals mean that
+     * every stripe was idle between the two passes.
+     *
+     * @return total started count, or -1 if an open() was in progress
+     */
+    private long quiescentStarts()
+    {
+        long finished = sum(FINISHED);
+        long started  = sum(STARTED);
+        return started == finished ? started : -1;
+    }
+
+    private long sum(int counter)
+    {
+        long total = 0;
+        for (int s = 0; s < stripes; s++)
+        {
+            total += counts.get(s * STRIDE + counter);
+        }
+        return total;
+    }
+
+    private int xyTo1D(int i, int j)
+    {
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Opens the sites of an N-by-N grid in one random order, split into
+     * contiguous chunks that the given number of threads open concurrently,
+     * and prints the elapsed time and whether the grid percolates.
+     *
+     * @param args N, threads and a seed
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        if (args.length != 3)
+        {
+            throw new IllegalArgumentException("Provide 3 arguments: main(N,threads,seed)");
+        }
+
+        final int N       = Integer.parseInt(args[0]);
+        final int threads = Integer.parseInt(args[1]);
+        final int[] order = new int[N * N];
+        SiteOrder sites = new SiteOrder(N, new SplitMix64(Long.parseLong(args[2])));
+        for (int k = 0; k < order.length; k++)
+        {
+            order[k] = sites.next();
+        }
+
+        // open the first 60% of the order, about the percolation threshold
+        final int count = (int) (0.6 * order.length);
+        final ConcurrentPercolation perc = new ConcurrentPercolation(N);
+        Stopwatch sw = new Stopwatch();
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            final int from = (int) ((long) count * t / threads);
+            final int to   = (int) ((long) count * (t + 1) / threads);
+            workers[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int k = from; k < to; k++)
+                    {
+                        perc.open(order[k] / N + 1, order[k] % N + 1);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        System.out.println("elapsed time            = " + sw.elapsedTime());
+        System.out.println("open sites              = " + perc.numberOfOpenSites());
+        System.out.println("percolates              = " + perc.percolates());
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ *
+ * Compilation: javac ConcurrentUnionFind.java
+ * Execution: none (library class)
+ *
+ * Lock-free union-find over an AtomicIntegerArray (after Anderson and
+ * Woll's wait-free union-find, with randomized linking):
+ *
+ *   - union() links one root under the other with a compareAndSet that
+ *     only succeeds while the linked element is still a root, and retries
+ *     otherwise. Which root goes under is decided by a fixed pseudo-random
+ *     priority per element, which keeps trees shallow in expectation
+ *     without having to update ranks atomically.
+ *   - find() halves paths with compareAndSet; a failed update is harmless
+ *     since it only means another thread shortened the path first.
+ *   - connected() returns false only after checking that the root found
+ *     for p is still a root, so the answer was true at some instant
+ *     during the call.
+ *
+ */
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public final class ConcurrentUnionFind
+{
+    private final AtomicIntegerArray parent;
+
+    /**
+     * @param n number of elements
+     */
+    public ConcurrentUnionFind(int n)
+    {
+        this.parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++)
+        {
+            parent.set(i, i);
+        }
+    }
+
+    /**
+     * @param p element
+     * @return root of the component containing p at some instant during the call
+     */
+    public int find(int p)
+    {
+        while (true)
+        {
+            int up = parent.get(p);
+            if (up == p) return p;
+
+            int grand = parent.get(up);
+            if (grand != up) parent.compareAndSet(p, up, grand);
+            p = grand;
+        }
+    }
+
+    /**
+     * Merges the components of p and q
+     *
+     * @param p element
+     * @param q element
+     */
+    public void union(int p, int q)
+    {
+        while (true)
+        {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return;
+
+            // Link the root with the lower priority under the other one
+            if (priority(rootP) > priority(rootQ) || (priority(rootP) == priority(rootQ) && rootP > rootQ))
+            {
+                int tmp = rootP;
+                rootP = rootQ;
+                rootQ = tmp;
+            }
+            if (parent.compareAndSet(rootP, rootP, rootQ)) return;
+        }
+    }
+
+    /**
+     * @param p element
+     * @param q element
+     * @return true if p and q are in the same component
+     */
+    public boolean connected(int p, int q)
+    {
+        while (true)
+        {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return true;
+            if (parent.get(rootP) == rootP) return false;
+        }
+    }
+
+    private static int priority(int p)
+    {
+        // Fixed odd-multiplier hash, compared as unsigned
+        return (p * 0x9e3779b9) ^ Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ * Compilation: javac DirectedPercolation.java
+ * Execution: java DirectedPercolation 10000 0.7055 20 42 [height]
+ *
+ * Directed site percolation, where fullness only flows downwards: site
+ * (i + 1, j) is reached when it is open and site (i, j) or site (i, j - 1)
+ * was reached, so clusters grow down and to the right like on the square
+ * lattice turned by 45 degrees. The threshold is about 0.7055.
+ *
+ * Since row i + 1 depends only on row i, nothing but the reachable sets of
+ * the current row and the next one are kept. A run generates each row on the fly, 64 sites
+ * per random word (SplitMix64.bernoulliMask), and advances the reachable
+ * bitset with one shift, OR and AND per word:
+ *
+ *     next = open & (reach | reach << 1)
+ *
+ * That is O(N) memory and O(N * height / 64) word operations, and a run
+ * stops as soon as no site of a row is reachable, so grids far taller than
+ * memory can be simulated.
+ *
+ */
+
+public class DirectedPercolation
+{
+    private final int width;
+    private final long lastWordMask;    // Valid bits of the last word of a row
+    private long[] reach;               // Reachable sites of the last row with any
+    private long[] next;                // Row being computed, swapped in if any is reachable
+    private long depth;                 // Rows with a reachable site in the last run
+
+    /**
+     * Creates the row storage for grids of the given width
+     *
+     * @param width number of columns
+     */
+    public DirectedPercolation(int width)
+    {
+        if (width <= 0) throw new IllegalArgumentException("width must be > 0: " + width);
+
+        this.width        = width;
+        this.lastWordMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        this.reach        = new long[(width + 63) >>> 6];
+        this.next         = new long[reach.length];
+    }
+
+    /**
+     * Runs one square width-by-width grid, see run(double, long, SplitMix64)
+     *
+     * @param p      site occupation probability
+     * @param random random stream
+     * @return true if some site of the last row is reached
+     */
+    public boolean run(double p, SplitMix64 random)
+    {
+        return run(p, width, random);
+    }
+
+    /**
+     * Occupies the sites of a grid with the given number of rows, row by
+     * row, each independently with probability p, and follows the sites
+     * reachable from the open sites of the first row
+     *
+     * @param p      site occupation probability
+     * @param height number of rows
+     * @param random random stream
+     * @return true if some site of the last row is reached
+     */
+    public boolean run(double p, long height, SplitMix64 random)
+    {
+        if (!(p >= 0.0 && p <= 1.0))
+        {
+            throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        }
+        if (height <= 0) throw new IllegalArgumentException("height must be > 0: " + height);
+
+        int last = reach.length - 1;
+        long alive = 0L;
+        for (int w = 0; w <= last; w++)
+        {
+            reach[w] = random.bernoulliMask(p);
+        }
+        reach[last] &= lastWordMask;
+        for (long word : reach)
+        {
+            alive |= word;
+        }
+
+        depth = 0;
+        while (alive != 0L)
+        {
+            depth++;
+            if (depth == height) return true;
+
+            // High words first, the order the random words have always been drawn in
+            alive = 0L;
+            for (int w = last; w >= 0; w--)
+            {
+                long carry = w > 0 ? reach[w - 1] >>> 63 : 0L;
+                long row   = random.bernoulliMask(p) & (reach[w] | (reach[w] << 1) | carry);
+                if (w == last) row &= lastWordMask;
+                next[w] = row;
+                alive |= row;
+            }
+
+            // A dead row is not kept, so reach still holds the last live one
+            if (alive != 0L)
+            {
+                long[] tmp = reach;
+                reach = next;
+                next  = tmp;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of rows with a reachable site in the last run, which
+     *         equals the height if it percolated
+     */
+    public long depth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return number of reachable sites in the last row the last run reached,
+     *         0 if not even a site of the first row was open
+     */
+    public int reachable()
+    {
+        int count = 0;
+        for (long word : reach)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @param j column index, 1 .. width
+     * @return true if site j of the last row the last run reached is
+     *         reachable, false for every j if depth() is 0
+     */
+    public boolean isReachable(int j)
+    {
+        if (j <= 0 || j > width)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+        return (reach[(j - 1) >>> 6] & (1L << (j - 1))) != 0;
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Runs a number of grids at probability p and prints how many percolate
+     * and the mean depth reached.
+     *
+     * @param args width, p, runs, a seed and optionally the height (default: width)
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 4 || args.length > 5)
+        {
+            throw new IllegalArgumentException("Provide 4 or 5 arguments: main(N,p,runs,seed[,height])");
+        }
+
+        int N       = Integer.parseInt(args[0]);
+        double p    = Double.parseDouble(args[1]);
+        int runs    = Integer.parseInt(args[2]);
+        long seed   = Long.parseLong(args[3]);
+        long height = args.length == 5 ? Long.parseLong(args[4]) : N;
+
+        DirectedPercolation grid = new DirectedPercolation(N);
+        RunningStats depths = new RunningStats();
+        int percolating = 0;
+        Stopwatch sw = new Stopwatch();
+        for (int r = 0; r < runs; r++)
+        {
+            if (grid.run(p, height, SplitMix64.stream(seed, r))) percolating++;
+            depths.add(grid.depth());
+        }
+
+        System.out.println("elapsed time            = " + sw.elapsedTime());
+        System.out.println("percolating             = " + percolating + " of " + runs);
+        System.out.println("mean depth              = " + depths.mean());
+    }
+}
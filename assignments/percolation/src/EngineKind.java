@@ -0,0 +1,148 @@
+/**
+ *
+ * Compilation: javac EngineKind.java
+ * Execution: none (enum)
+ *
+ * The percolation implementations PercolationStats can run its trials with.
+ * Each kind creates a reusable PercolationTrial: an OrderedTrial over a
+ * PercolationEngine for the kinds that open sites or bonds in random order,
+ * and the InvasionPercolation itself for the invasion model, which picks
+ * its own sites and so is not a PercolationEngine.
+ *
+ */
+
+public enum EngineKind
+{
+    /** Percolation: two weighted quick union structures with virtual sites */
+    TWO_UNION_FIND
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final Percolation percolation = new Percolation(N);
+            return new OrderedTrial(percolation, N, N * N)
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+            };
+        }
+    },
+
+    /** CompactPercolation: one weighted quick union with top/bottom root flags */
+    SINGLE_UNION_FIND
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final CompactPercolation percolation = new CompactPercolation(N);
+            return new OrderedTrial(percolation, N, N * N)
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+            };
+        }
+    },
+
+    /** CompactPercolation on HalvingUnionFind */
+    SINGLE_HALVING_UNION_FIND
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final CompactPercolation percolation = new CompactPercolation(N, UnionFindKind.HALVING);
+            return new OrderedTrial(percolation, N, N * N)
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+            };
+        }
+    },
+
+    /** TorusPercolation wrapped left-right: spans top to bottom on a cylinder */
+    CYLINDER
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final TorusPercolation percolation = new TorusPercolation(N, false);
+            return new OrderedTrial(percolation, N, N * N)
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+            };
+        }
+    },
+
+    /** TorusPercolation wrapped both ways: percolates when a cluster wraps vertically */
+    TORUS
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final TorusPercolation percolation = new TorusPercolation(N, true);
+            return new OrderedTrial(percolation, N, N * N)
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+            };
+        }
+    },
+
+    /** BondPercolation: random bonds between always open sites */
+    BOND
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            final BondPercolation percolation = new BondPercolation(N);
+            return new OrderedTrial(percolation, N, 2 * N * (N - 1))
+            {
+                @Override
+                protected void reset()
+                {
+                    percolation.reset();
+                }
+
+                @Override
+                protected void open(int k)
+                {
+                    percolation.openBond(k);
+                }
+            };
+        }
+    },
+
+    /** InvasionPercolation: the largest invaded weight estimates the threshold */
+    INVASION
+    {
+        @Override
+        public PercolationTrial trial(int N)
+        {
+            return new InvasionPercolation(N);
+        }
+    };
+
+    /**
+     * Creates the storage for running trials of this kind on an N-by-N
+     * grid, reused from one trial to the next
+     *
+     * @param N grid size
+     * @return a new trial of this kind
+     */
+    public abstract PercolationTrial trial(int N);
+}
@@ -0,0 +1,369 @@
+/**
+ *
+ * Compilation: javac HoshenKopelman.java
+ * Execution: java HoshenKopelman grid.txt
+ *            java HoshenKopelman -binary grid.bin
+ *
+ * Streaming percolation checker for complete grids. Rows are fed one at a
+ * time and clusters are labelled Hoshen-Kopelman style: each open site takes
+ * the label of its left or upper neighbour, and labels that meet are merged
+ * in a small union-find over labels. After every row the labels still in
+ * use are renumbered 0 .. k - 1, and clusters that did not reach the new row
+ * are finished and counted, so the working memory is O(N) whatever the
+ * number of rows, and multi-gigabyte grid dumps can be checked without
+ * loading them.
+ *
+ * Text format: the grid size N followed by N rows of N characters, '1' for
+ * an open site and '0' for a blocked one; whitespace is ignored.
+ * Binary format: N as a 4-byte big-endian int followed by N rows of
+ * ceil(N / 8) bytes, column c being bit (c % 8) of byte c / 8.
+ *
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class HoshenKopelman
+{
+    private static final int NONE   = -1;
+    private static final int TOP    = 1;
+    private static final int BOTTOM = 2;
+
+    private final int N;
+    private int[] previous;         // Labels of the previous row, NONE if blocked
+    private int[] current;          // Labels of the row being processed
+    private final int[] parent;     // Union-find over labels, 2N labels at most
+    private final long[] size;      // Cluster size, valid at label roots
+    private final int[] flags;      // TOP/BOTTOM, valid at label roots
+    private final int[] renumber;   // Root label -> compact label for the next row
+    private final long[] nextSize;  // Scratch: sizes under the compact labels
+    private final int[] nextFlags;  // Scratch: flags under the compact labels
+    private int labels;             // Labels in use, previous row's are 0 .. k - 1
+
+    private int rows;
+    private long openSites;
+    private long clusters;
+    private long largest;
+    private double sumSquares;      // sum(s^2) over finished clusters
+    private boolean percolates;
+
+    /**
+     * Prepares to check an N-by-N grid
+     *
+     * @param N grid size
+     */
+    public HoshenKopelman(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N        = N;
+        this.previous = new int[N];
+        this.current  = new int[N];
+        this.parent   = new int[2 * N];
+        this.size     = new long[2 * N];
+        this.flags    = new int[2 * N];
+        this.renumber = new int[2 * N];
+        this.nextSize  = new long[N];
+        this.nextFlags = new int[N];
+
+        Arrays.fill(previous, NONE);
+        Arrays.fill(renumber, NONE);
+    }
+
+    /**
+     * Adds the next row of the grid
+     *
+     * @param open open[c] is true if column c of the row is open
+     */
+    public void addRow(boolean[] open)
+    {
+        if (open.length != N) throw new IllegalArgumentException("row must have " + N + " sites");
+        if (rows == N) throw new IllegalStateException("all " + N + " rows already added");
+
+        int rowFlags = (rows == 0 ? TOP : 0) | (rows == N - 1 ? BOTTOM : 0);
+
+        for (int c = 0; c < N; c++)
+        {
+            if (!open[c])
+            {
+                current[c] = NONE;
+                continue;
+            }
+            openSites++;
+
+            int left = c > 0 ? current[c - 1] : NONE;
+            int up   = previous[c];
+            int label;
+            if (left != NONE && up != NONE)
+            {
+                label = union(find(left), find(up));
+            }
+            else if (left != NONE || up != NONE)
+            {
+                label = find(left != NONE ? left : up);
+            }
+            else
+            {
+                label = labels++;
+                parent[label] = label;
+                size[label]   = 0;
+                flags[label]  = 0;
+            }
+
+            current[c] = label;
+            size[label]++;
+            flags[label] |= rowFlags;
+        }
+
+        rows++;
+        compact();
+
+        // Clusters that reach the bottom row are done as well
+        if (rows == N)
+        {
+            for (int label = 0; label < labels; label++)
+            {
+                finish(size[label], flags[label]);
+            }
+            labels = 0;
+        }
+    }
+
+    /**
+     * Renumbers the labels of the current row and finishes every cluster
+     * that has no site in it
+     */
+    private void compact()
+    {
+        int next = 0;
+        for (int c = 0; c < N; c++)
+        {
+            if (current[c] == NONE) continue;
+
+            int root = find(current[c]);
+            if (renumber[root] == NONE) renumber[root] = next++;
+            current[c] = renumber[root];
+        }
+
+        // Roots without a new number have no site in this row: they are done
+        for (int label = 0; label < labels; label++)
+        {
+            if (parent[label] == label && renumber[label] == NONE)
+            {
+                finish(size[label], flags[label]);
+            }
+        }
+
+        // Move the surviving roots into slots 0 .. next - 1
+        for (int label = 0; label < labels; label++)
+        {
+            if (renumber[label] != NONE)
+            {
+                nextSize[renumber[label]]  = size[label];
+                nextFlags[renumber[label]] = flags[label];
+                renumber[label] = NONE;
+            }
+        }
+        for (int n = 0; n < next; n++)
+        {
+            parent[n] = n;
+            size[n]   = nextSize[n];
+            flags[n]  = nextFlags[n];
+        }
+        labels = next;
+
+        int[] tmp = previous;
+        previous  = current;
+        current   = tmp;
+    }
+
+    private void finish(long clusterSize, int clusterFlags)
+    {
+        clusters++;
+        sumSquares += (double) clusterSize * clusterSize;
+        if (clusterSize > largest) largest = clusterSize;
+        if (clusterFlags == (TOP | BOTTOM)) percolates = true;
+    }
+
+    private int find(int p)
+    {
+        while (parent[p] != p)
+        {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Merges two root labels, keeping the lower one as the root
+     */
+    private int union(int rootP, int rootQ)
+    {
+        if (rootP == rootQ) return rootP;
+        if (rootQ < rootP)
+        {
+            int tmp = rootP;
+            rootP = rootQ;
+            rootQ = tmp;
+        }
+        parent[rootQ] = rootP;
+        size[rootP]  += size[rootQ];
+        flags[rootP] |= flags[rootQ];
+        return rootP;
+    }
+
+    private void checkComplete()
+    {
+        if (rows != N) throw new IllegalStateException("only " + rows + " of " + N + " rows added");
+    }
+
+    /**
+     * @return true if some cluster connects the top row to the bottom row
+     */
+    public boolean percolates()
+    {
+        checkComplete();
+        return percolates;
+    }
+
+    /**
+     * @return number of clusters of open sites
+     */
+    public long clusters()
+    {
+        checkComplete();
+        return clusters;
+    }
+
+    /**
+     * @return size of the largest cluster, 0 if no site is open
+     */
+    public long largestCluster()
+    {
+        checkComplete();
+        return largest;
+    }
+
+    /**
+     * @return number of open sites
+     */
+    public long openSites()
+    {
+        checkComplete();
+        return openSites;
+    }
+
+    /**
+     * @return sum(s^2) / openSites(), the expected size of the cluster of a
+     *         random open site, NaN if no site is open
+     */
+    public double meanClusterSize()
+    {
+        checkComplete();
+        return openSites == 0 ? Double.NaN : sumSquares / openSites;
+    }
+
+    /**
+     * Checks a grid in the text format
+     *
+     * @param input text grid
+     * @return the completed checker
+     * @throws IOException on read errors or a truncated grid
+     */
+    public static HoshenKopelman readText(InputStream input) throws IOException
+    {
+        InputStream in = new BufferedInputStream(input, 1 << 16);
+
+        int ch = in.read();
+        while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n') ch = in.read();
+        int N = 0;
+        while (ch >= '0' && ch <= '9')
+        {
+            N = 10 * N + (ch - '0');
+            ch = in.read();
+        }
+
+        HoshenKopelman checker = new HoshenKopelman(N);
+        boolean[] row = new boolean[N];
+        for (int r = 0; r < N; r++)
+        {
+            for (int c = 0; c < N; c++)
+            {
+                ch = in.read();
+                while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n') ch = in.read();
+                if (ch == '1')      row[c] = true;
+                else if (ch == '0') row[c] = false;
+                else if (ch < 0)    throw new EOFException("grid ends in row " + (r + 1));
+                else                throw new IOException("unexpected character '" + (char) ch + "'");
+            }
+            checker.addRow(row);
+        }
+        return checker;
+    }
+
+    /**
+     * Checks a grid in the binary format
+     *
+     * @param input binary grid
+     * @return the completed checker
+     * @throws IOException on read errors or a truncated grid
+     */
+    public static HoshenKopelman readBinary(InputStream input) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+
+        int N = in.readInt();
+        HoshenKopelman checker = new HoshenKopelman(N);
+        byte[]    packed = new byte[(N + 7) / 8];
+        boolean[] row    = new boolean[N];
+        for (int r = 0; r < N; r++)
+        {
+            in.readFully(packed);
+            for (int c = 0; c < N; c++)
+            {
+                row[c] = (packed[c >>> 3] & (1 << (c & 7))) != 0;
+            }
+            checker.addRow(row);
+        }
+        return checker;
+    }
+
+    /**
+     * Checks a grid file and prints whether it percolates and its cluster
+     * statistics.
+     *
+     * @param args grid file, optionally preceded by -binary
+     * @throws IOException on read errors
+     */
+    public static void main(String[] args) throws IOException
+    {
+        boolean binary = args.length == 2 && args[0].equals("-binary");
+        if (args.length != 1 && !binary)
+        {
+            throw new IllegalArgumentException("Provide arguments: main([-binary] file)");
+        }
+
+        InputStream in = new FileInputStream(args[args.length - 1]);
+        HoshenKopelman checker;
+        try
+        {
+            checker = binary ? readBinary(in) : readText(in);
+        }
+        finally
+        {
+            in.close();
+        }
+
+        System.out.println("percolates              = " + checker.percolates());
+        System.out.println("open sites              = " + checker.openSites());
+        System.out.println("clusters                = " + checker.clusters());
+        System.out.println("largest cluster         = " + checker.largestCluster());
+        System.out.println("mean cluster size       = " + checker.meanClusterSize());
+    }
+}
@@ -1,11 +1,12 @@
 /****************************************************************************
  *  Compilation:  javac InteractivePercolationVisualizer.java
  *  Execution:    java InteractivePercolationVisualizer N
- *  Dependencies: PercolationVisualizer.java Percolation.java
- *                StdDraw.java StdOut.java
+ *  Dependencies: PercolationCanvas.java Percolation.java
+ *                SiteOrder.java StdDraw.java StdOut.java
  *
  *  This program takes the grid size N as a command-line argument.
- *  Then, the user repeatedly clicks sites to open with the mouse.
+ *  Then, the user repeatedly clicks sites to open with the mouse,
+ *  or types a key to open the next blocked site of a random SiteOrder.
  *  After each site is opened, it draws full sites in light blue,
  *  open sites (that aren't full) in white, and blocked sites in black.
  *
@@ -21,10 +22,10 @@ public class InteractivePercolationVisualizer {
         // repeatedly open site specified my mouse click and draw resulting system
         StdOut.println(N);
 
-        StdDraw.show(0);
+        SiteOrder order = new SiteOrder(N, new SplitMix64(System.nanoTime()));
+
         Percolation perc = new Percolation(N);
-        PercolationVisualizer.draw(perc, N);
-        StdDraw.show(0);
+        PercolationCanvas canvas = new PercolationCanvas(perc, N);
 
         while (true) {
 
@@ -44,12 +45,28 @@ public class InteractivePercolationVisualizer {
                     if (!perc.isOpen(i, j)) {
                         StdOut.println(i + " " + j);
                     }
-                    perc.open(i, j);
+                    canvas.open(i, j);
+                }
+
+                // show the squares that changed
+                canvas.show();
+            }
+
+            // key typed: open next random site that isn't open yet
+            if (StdDraw.hasNextKeyTyped()) {
+                StdDraw.nextKeyTyped();
+                while (order.hasNext()) {
+                    int site = order.next();
+                    int i = order.row(site);
+                    int j = order.col(site);
+                    if (!perc.isOpen(i, j)) {
+                        StdOut.println(i + " " + j);
+                        canvas.open(i, j);
+                        break;
+                    }
                 }
 
-                // draw N-by-N percolation system
-                StdDraw.show(0);
-                PercolationVisualizer.draw(perc, N);
+                canvas.show();
             }
             StdDraw.show(20);
         }
@@ -0,0 +1,311 @@
+/**
+ *
+ * Compilation: javac InvasionPercolation.java
+ * Execution: java InvasionPercolation 1000 20 42
+ *
+ * Invasion percolation on an N-by-N grid. Every site gets a random weight,
+ * uniform on [0, 1), and a cluster grows from the top row by always
+ * invading the perimeter site with the lowest weight, until it reaches the
+ * bottom row. The largest weight accepted on the way estimates the
+ * percolation threshold, so one run gives a threshold estimate while
+ * touching only the invaded region and its perimeter, not the whole grid.
+ *
+ * Weights are drawn lazily, when a site first joins the perimeter. The
+ * perimeter is a binary heap of primitive long keys: the 31-bit weight in
+ * the high word and the site number in the low word, so comparing keys
+ * compares weights and breaks ties by site. Two bitsets mark the sites
+ * seen and invaded, and a log of the seen sites lets reset() clear only
+ * those bits. The heap and the log grow on demand.
+ *
+ * Sites cannot be opened from outside, since the invasion picks them
+ * itself, so this is not a PercolationEngine. It is a PercolationTrial,
+ * which is all PercolationStats needs. isOpen() and isFull() both report
+ * invaded sites, which are all connected to the top row.
+ *
+ */
+
+public class InvasionPercolation implements PercolationTrial
+{
+    private static final double WEIGHT_SCALE = 1.0 / (1L << 31);
+
+    private final int N;
+    private final long[] seen;      // bit per site: weight drawn, in the heap or invaded
+    private final long[] invaded;   // bit per site: invaded
+    private long[] heap;            // perimeter, (weight << 32) | site, min at 1
+    private int heapSize;
+    private int[] log;              // sites seen since the last reset
+    private int logSize;
+    private int invadedSites;
+    private int maxWeight;          // largest weight invaded so far
+    private boolean percolates;
+    private SplitMix64 random;
+
+    /**
+     * Creates an N-by-N grid with nothing invaded
+     *
+     * @param N
+     */
+    public InvasionPercolation(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N       = N;
+        this.seen    = new long[(N * N + 63) >>> 6];
+        this.invaded = new long[seen.length];
+        this.heap    = new long[4 * N + 1];
+        this.log     = new int[4 * N];
+    }
+
+    /**
+     * Runs one invasion from scratch, drawing the weights from the given
+     * stream, until the invaded cluster reaches the bottom row
+     *
+     * @param random random stream for the site weights
+     * @return largest weight invaded, the threshold estimate of the run
+     */
+    @Override
+    public double run(SplitMix64 random)
+    {
+        start(random);
+        while (!percolates)
+        {
+            invade();
+        }
+        return threshold();
+    }
+
+    /**
+     * Clears the grid and puts the top row on the perimeter, with weights
+     * from the given stream
+     *
+     * @param random random stream for the site weights
+     */
+    public void start(SplitMix64 random)
+    {
+        if (random == null) throw new NullPointerException("random");
+
+        reset();
+        this.random = random;
+        for (int c = 0; c < N; c++)
+        {
+            see(c);
+        }
+    }
+
+    /**
+     * Invades the lowest-weight site of the perimeter
+     *
+     * @return invaded site, 0-based in row-major order
+     * @throws IllegalStateException if start() has not been called or the
+     *         cluster already reached the bottom row
+     */
+    public int invade()
+    {
+        if (random == null) throw new IllegalStateException("invasion not started");
+        if (percolates) throw new IllegalStateException("invasion already reached the bottom row");
+
+        long key = pop();
+        int site   = (int) key;
+        int weight = (int) (key >>> 32);
+        invaded[site >>> 6] |= 1L << site;
+        invadedSites++;
+        if (weight > maxWeight) maxWeight = weight;
+
+        int r = site / N;
+        int c = site % N;
+        if (r == N - 1)
+        {
+            percolates = true;
+            return site;
+        }
+        if (r > 0)     see(site - N);
+        see(site + N);
+        if (c > 0)     see(site - 1);
+        if (c < N - 1) see(site + 1);
+        return site;
+    }
+
+    /**
+     * Draws the weight of a site the first time it is seen and puts it on
+     * the perimeter
+     */
+    private void see(int site)
+    {
+        long bit = 1L << site;
+        if ((seen[site >>> 6] & bit) != 0) return;
+        seen[site >>> 6] |= bit;
+
+        if (logSize == log.length) log = java.util.Arrays.copyOf(log, 2 * log.length);
+        log[logSize++] = site;
+
+        long weight = random.nextLong() >>> 33;
+        push((weight << 32) | site);
+    }
+
+    private void push(long key)
+    {
+        if (heapSize + 1 == heap.length) heap = java.util.Arrays.copyOf(heap, 2 * heap.length);
+
+        // Sift up from the new leaf
+        int k = ++heapSize;
+        while (k > 1 && heap[k >>> 1] > key)
+        {
+            heap[k] = heap[k >>> 1];
+            k >>>= 1;
+        }
+        heap[k] = key;
+    }
+
+    private long pop()
+    {
+        long min  = heap[1];
+        long last = heap[heapSize--];
+
+        // Sift the last leaf down from the root
+        int k = 1;
+        while (2 * k <= heapSize)
+        {
+            int child = 2 * k;
+            if (child < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = last;
+        return min;
+    }
+
+    /**
+     * @return largest weight invaded so far
+     */
+    public double threshold()
+    {
+        return maxWeight * WEIGHT_SCALE;
+    }
+
+    /**
+     * @return number of invaded sites
+     */
+    public int numberOfInvadedSites()
+    {
+        return invadedSites;
+    }
+
+    /**
+     * @return number of sites whose weight was drawn: the invaded ones and
+     *         the current perimeter
+     */
+    public int numberOfSeenSites()
+    {
+        return logSize;
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Has site (row i, column j) been invaded?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j has been invaded
+     */
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = (i - 1) * N + (j - 1);
+        return (invaded[site >>> 6] & (1L << site)) != 0;
+    }
+
+    /**
+     * Invaded sites all belong to one cluster grown from the top row
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j has been invaded
+     */
+    public boolean isFull(int i, int j)
+    {
+        return isOpen(i, j);
+    }
+
+    /**
+     *
+     * @return true if the invaded cluster reached the bottom row
+     */
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * Nothing but storage carries over from one run to the next: run()
+     * starts from an empty grid and draws every weight from its own stream
+     */
+    @Override
+    public void rewind()
+    {
+    }
+
+    /**
+     * Clears the sites touched since the last reset, leaving an empty grid
+     */
+    public void reset()
+    {
+        for (int k = 0; k < logSize; k++)
+        {
+            int site = log[k];
+            seen[site >>> 6]    = 0;
+            invaded[site >>> 6] = 0;
+        }
+        logSize      = 0;
+        heapSize     = 0;
+        invadedSites = 0;
+        maxWeight    = 0;
+        percolates   = false;
+        random       = null;
+    }
+
+    /**
+     * Runs a number of invasions on an N-by-N grid and prints the mean
+     * threshold estimate and the mean fraction of the grid invaded.
+     *
+     * @param args N, number of runs and a seed
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 3)
+        {
+            throw new IllegalArgumentException("Provide 3 arguments: main(N,runs,seed)");
+        }
+
+        int N    = Integer.parseInt(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+
+        InvasionPercolation invasion = new InvasionPercolation(N);
+        RunningStats thresholds = new RunningStats();
+        RunningStats fractions  = new RunningStats();
+        Stopwatch sw = new Stopwatch();
+        for (int r = 0; r < runs; r++)
+        {
+            thresholds.add(invasion.run(SplitMix64.stream(seed, r)));
+            fractions.add(invasion.numberOfInvadedSites() / ((double) N * N));
+        }
+
+        System.out.println("elapsed time            = " + sw.elapsedTime());
+        System.out.println("mean threshold          = " + thresholds.mean());
+        System.out.println("stddev                  = " + thresholds.stddev());
+        System.out.println("mean fraction invaded   = " + fractions.mean());
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ *
+ * Compilation: javac MappedBuffer.java
+ * Execution: none (library class)
+ *
+ * A file-backed array of bytes and longs addressed with long indices. The
+ * file is mapped in 1 GB segments (a single MappedByteBuffer is limited to
+ * 2 GB), so arrays of any size live in the page cache instead of on the
+ * Java heap. New files are sparse and read as zeros, which callers use to
+ * avoid an O(size) initialisation pass.
+ *
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public final class MappedBuffer implements Closeable
+{
+    private static final int  SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Creates a zero-filled buffer of the given size in a new temporary file
+     *
+     * @param directory directory for the backing file
+     * @param prefix    file name prefix
+     * @param bytes     size in bytes
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public MappedBuffer(File directory, String prefix, long bytes) throws IOException
+    {
+        if (bytes <= 0) throw new IllegalArgumentException("bytes must be > 0: " + bytes);
+
+        this.file = File.createTempFile(prefix, ".map", directory);
+        this.file.deleteOnExit();
+        this.raf  = new RandomAccessFile(file, "rw");
+
+        try
+        {
+            raf.setLength(bytes);
+
+            int count = (int) ((bytes + SEGMENT_MASK) >>> SEGMENT_BITS);
+            this.segments = new MappedByteBuffer[count];
+
+            FileChannel channel = raf.getChannel();
+            for (int s = 0; s < count; s++)
+            {
+                long start = (long) s << SEGMENT_BITS;
+                long size  = Math.min(1L << SEGMENT_BITS, bytes - start);
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+            }
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param index byte index
+     * @return the byte at that index
+     */
+    public byte getByte(long index)
+    {
+        return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+    }
+
+    /**
+     * @param index byte index
+     * @param value new value
+     */
+    public void putByte(long index, byte value)
+    {
+        segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Longs never straddle segments since the segment size is a multiple of 8
+     *
+     * @param index long index (byte offset / 8)
+     * @return the long at that index
+     */
+    public long getLong(long index)
+    {
+        long offset = index << 3;
+        return segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * @param index long index (byte offset / 8)
+     * @param value new value
+     */
+    public void putLong(long index, long value)
+    {
+        long offset = index << 3;
+        segments[(int) (offset >>> SEGMENT_BITS)].putLong((int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Closes the backing file and deletes it. Java has no public way to
+     * unmap a MappedByteBuffer, so the mapping, and the disk space behind
+     * it, stays until the segments are garbage collected. On Linux and
+     * macOS the file name goes away at once. Windows refuses to delete a
+     * mapped file, so there the file stays until the JVM exits and
+     * deleteOnExit() removes it.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            raf.close();
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ *
+ * Compilation: javac MappedPercolation.java
+ * Execution: java MappedPercolation 20000 42 [directory]
+ *
+ * Percolation for grids too large for the Java heap. All per-site state
+ * lives in memory-mapped files (see MappedBuffer) and sites are addressed
+ * with long indices, so N = 100,000 (10^10 sites) only needs disk space
+ * and lets the page cache do the paging.
+ *
+ * Like CompactPercolation it uses a single union-find with "touches top" /
+ * "touches bottom" flags at the roots instead of virtual sites. The files
+ * start out zero-filled and sparse, so the encodings are chosen to make
+ * zero the initial state and construction takes constant time:
+ *
+ *   - parent: 8 bytes per site, 0 for a root, otherwise parent index + 1
+ *   - state:  1 byte per site, rank in bits 0-5, TOP and BOTTOM flags
+ *   - open:   1 bit per site
+ *
+ * Union is by rank with path halving.
+ *
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+public class MappedPercolation implements PercolationEngine, Closeable
+{
+    private static final int RANK   = 0x3f;
+    private static final int TOP    = 0x40;
+    private static final int BOTTOM = 0x80;
+
+    private final int N;
+    private final MappedBuffer parent;
+    private final MappedBuffer state;
+    private final MappedBuffer open;
+    private long openSites;
+    private boolean percolates;
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked, backed by files in
+     * the system temporary directory
+     *
+     * @param N grid size
+     * @throws IOException if the backing files cannot be created
+     */
+    public MappedPercolation(int N) throws IOException
+    {
+        this(N, null);
+    }
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked, backed by files in the
+     * given directory
+     *
+     * @param N         grid size
+     * @param directory directory for the backing files, null for the default
+     * @throws IOException if the backing files cannot be created
+     */
+    public MappedPercolation(int N, File directory) throws IOException
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N = N;
+        long sites = (long) N * N;
+
+        MappedBuffer p = null;
+        MappedBuffer s = null;
+        try
+        {
+            p = new MappedBuffer(directory, "parent", sites * 8);
+            s = new MappedBuffer(directory, "state", sites);
+            this.open = new MappedBuffer(directory, "open", ((sites + 63) >>> 6) * 8);
+        }
+        catch (IOException e)
+        {
+            if (p != null) p.close();
+            if (s != null) s.close();
+            throw e;
+        }
+        this.parent = p;
+        this.state  = s;
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+
+        long site = xyTo1D(i, j);
+        if (isOpen(site)) return;
+
+        open.putLong(site >>> 6, open.getLong(site >>> 6) | (1L << site));
+        openSites++;
+
+        int flags = 0;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        state.putByte(site, (byte) flags);
+
+        if (i > 1 && isOpen(site - N)) union(site, site - N);
+        if (i < N && isOpen(site + N)) union(site, site + N);
+        if (j > 1 && isOpen(site - 1)) union(site, site - 1);
+        if (j < N && isOpen(site + 1)) union(site, site + 1);
+
+        if ((state.getByte(find(site)) & (TOP | BOTTOM)) == (TOP | BOTTOM))
+        {
+            percolates = true;
+        }
+    }
+
+    private boolean isOpen(long site)
+    {
+        return (open.getLong(site >>> 6) & (1L << site)) != 0;
+    }
+
+    /**
+     * Finds the root of a site, halving the path on the way
+     */
+    private long find(long p)
+    {
+        long up = parent.getLong(p);
+        while (up != 0)
+        {
+            long q = up - 1;
+            long grand = parent.getLong(q);
+            if (grand == 0) return q;
+            parent.putLong(p, grand);
+            p  = grand - 1;
+            up = parent.getLong(p);
+        }
+        return p;
+    }
+
+    /**
+     * Links the smaller-rank root under the other one and merges the flags
+     */
+    private void union(long p, long q)
+    {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        int stateP = state.getByte(rootP) & 0xff;
+        int stateQ = state.getByte(rootQ) & 0xff;
+        int rankP  = stateP & RANK;
+        int rankQ  = stateQ & RANK;
+        int flags  = (stateP | stateQ) & (TOP | BOTTOM);
+
+        if (rankP < rankQ)
+        {
+            parent.putLong(rootP, rootQ + 1);
+            state.putByte(rootQ, (byte) (rankQ | flags));
+        }
+        else
+        {
+            parent.putLong(rootQ, rootP + 1);
+            state.putByte(rootP, (byte) ((rankP == rankQ ? rankP + 1 : rankP) | flags));
+        }
+    }
+
+    /**
+     * Is site (row i, column j) open?
+     *
+     * @param i
+     * @param j
+     * @return true if the site site at location i,j is open
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return isOpen(xyTo1D(i, j));
+    }
+
+    /**
+     * Is site (row i, column j) full?
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+
+        long site = xyTo1D(i, j);
+        return isOpen(site) && (state.getByte(find(site)) & TOP) != 0;
+    }
+
+    /**
+     *
+     * @return true if the grid percolates
+     */
+    @Override
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * @return number of open sites
+     */
+    public long numberOfOpenSites()
+    {
+        return openSites;
+    }
+
+    /**
+     * Deletes the backing files
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            parent.close();
+            state.close();
+        }
+        finally
+        {
+            open.close();
+        }
+    }
+
+    private long xyTo1D(int i, int j)
+    {
+        return (long) (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Opens random sites of an N-by-N grid until it percolates and prints
+     * the fraction of open sites.
+     *
+     * @param args N, seed and an optional directory for the backing files
+     *
+     * @throws IOException if the backing files cannot be created
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            throw new IllegalArgumentException("Provide arguments: main(N,seed[,directory])");
+        }
+
+        int N = Integer.parseInt(args[0]);
+        SplitMix64 random = new SplitMix64(Long.parseLong(args[1]));
+        File directory = args.length > 2 ? new File(args[2]) : null;
+        Stopwatch sw = new Stopwatch();
+
+        MappedPercolation percolation = new MappedPercolation(N, directory);
+        try
+        {
+            long sites = (long) N * N;
+            while (!percolation.percolates())
+            {
+                // rejection is cheap: below the threshold most draws are blocked
+                long site = random.uniform(sites);
+                percolation.open((int) (site / N) + 1, (int) (site % N) + 1);
+            }
+
+            System.out.println("elapsed time            = " + sw.elapsedTime());
+            System.out.println("threshold               = " + percolation.numberOfOpenSites() / (double) sites);
+        }
+        finally
+        {
+            percolation.close();
+        }
+    }
+}
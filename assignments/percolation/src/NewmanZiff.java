@@ -0,0 +1,274 @@
+/**
+ *
+ * Compilation: javac NewmanZiff.java
+ * Execution: java NewmanZiff 128 100 42 0.55 0.56 0.57 0.58 0.59 0.60 0.61 0.62 0.63
+ *
+ * Newman-Ziff sweep for site percolation on an N x N grid (M. E. J. Newman
+ * and R. M. Ziff, "Fast Monte Carlo algorithm for site or bond percolation",
+ * Phys. Rev. E 64, 016706, 2001).
+ *
+ * A single sweep opens all N^2 sites in one random order and, after every
+ * opened site, records the observables for that occupation count n:
+ *
+ *   - whether some cluster spans from the top row to the bottom row,
+ *   - the size of the largest cluster,
+ *   - the mean cluster size, sum(s^2) / n, i.e. the expected size of the
+ *     cluster a randomly chosen open site belongs to.
+ *
+ * Cluster sizes are kept at the roots of the ClusterStats union-find
+ * (negative values in the parent array, as in the paper), so a sweep costs
+ * O(N^2) in total.
+ * Averaging the per-n values over sweeps gives the microcanonical
+ * observables Q(n); convolving them with the binomial distribution gives
+ * Q(p) for any occupation probability p without further simulation.
+ *
+ */
+
+public class NewmanZiff
+{
+    private static final byte TOP    = 1;
+    private static final byte BOTTOM = 2;
+
+    private final int N;
+    private final int sites;
+    private final ClusterStats clusters; // Open sites and their cluster sizes
+    private final byte[] edges;         // TOP/BOTTOM flags, valid at roots
+
+    private final double[] spanning;    // Sum over sweeps of the spanning indicator per n
+    private final double[] largest;     // Sum over sweeps of the largest cluster size per n
+    private final double[] meanSize;    // Sum over sweeps of the mean cluster size per n
+    private SiteOrder order;            // Opening order, reused between sweeps
+    private int sweeps;
+
+    /**
+     * Prepares sweeps on an N-by-N grid
+     *
+     * @param N grid size
+     */
+    public NewmanZiff(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N        = N;
+        this.sites    = N * N;
+        this.clusters = new ClusterStats(sites);
+        this.edges    = new byte[sites];
+        this.spanning = new double[sites + 1];
+        this.largest  = new double[sites + 1];
+        this.meanSize = new double[sites + 1];
+    }
+
+    /**
+     * Runs one sweep, opening every site in a random order, and adds its
+     * observables to the running sums.
+     *
+     * @param random random stream for the opening order
+     */
+    public void sweep(SplitMix64 random)
+    {
+        if (order == null) order = new SiteOrder(N, random);
+        else               order.reset(random);
+
+        clusters.reset();
+
+        boolean spans = false;
+
+        for (int n = 1; n <= sites; n++)
+        {
+            int site  = order.next();
+            int row   = site / N;
+            int col   = site % N;
+            int root  = site;
+
+            clusters.add(site);
+            edges[site]  = 0;
+            if (row == 0)     edges[site] |= TOP;
+            if (row == N - 1) edges[site] |= BOTTOM;
+
+            if (row > 0     && clusters.contains(site - N)) root = merge(root, site - N);
+            if (row < N - 1 && clusters.contains(site + N)) root = merge(root, site + N);
+            if (col > 0     && clusters.contains(site - 1)) root = merge(root, site - 1);
+            if (col < N - 1 && clusters.contains(site + 1)) root = merge(root, site + 1);
+
+            if (edges[root] == (TOP | BOTTOM)) spans = true;
+
+            if (spans) spanning[n] += 1;
+            largest[n]  += clusters.largest();
+            meanSize[n] += clusters.sumOfSquares() / (double) n;
+        }
+        sweeps++;
+    }
+
+    /**
+     * Merges the cluster of site q into the cluster rooted at rootP
+     *
+     * @return root of the merged cluster
+     */
+    private int merge(int rootP, int q)
+    {
+        byte merged = (byte) (edges[rootP] | edges[clusters.root(q)]);
+        int root = clusters.union(rootP, q);
+        edges[root] = merged;
+        return root;
+    }
+
+    /**
+     * @return number of sweeps run so far
+     */
+    public int sweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * @return number of sites, i.e. the largest occupation count
+     */
+    public int sites()
+    {
+        return sites;
+    }
+
+    /**
+     * Probability that the grid spans top to bottom with exactly n open sites
+     *
+     * @param n occupation count, between 0 and N^2
+     * @return microcanonical spanning probability
+     */
+    public double spanningProbability(int n)
+    {
+        return microcanonical(spanning, n);
+    }
+
+    /**
+     * Average size of the largest cluster with exactly n open sites
+     *
+     * @param n occupation count, between 0 and N^2
+     * @return microcanonical largest cluster size
+     */
+    public double largestCluster(int n)
+    {
+        return microcanonical(largest, n);
+    }
+
+    /**
+     * Average of sum(s^2) / n with exactly n open sites
+     *
+     * @param n occupation count, between 0 and N^2
+     * @return microcanonical mean cluster size
+     */
+    public double meanClusterSize(int n)
+    {
+        return microcanonical(meanSize, n);
+    }
+
+    /**
+     * @param p site occupation probability
+     * @return probability that the grid spans top to bottom
+     */
+    public double spanningProbabilityAt(double p)
+    {
+        return convolve(spanning, p);
+    }
+
+    /**
+     * @param p site occupation probability
+     * @return expected size of the largest cluster
+     */
+    public double largestClusterAt(double p)
+    {
+        return convolve(largest, p);
+    }
+
+    /**
+     * @param p site occupation probability
+     * @return expected mean cluster size
+     */
+    public double meanClusterSizeAt(double p)
+    {
+        return convolve(meanSize, p);
+    }
+
+    private double microcanonical(double[] sums, int n)
+    {
+        if (n < 0 || n > sites) throw new IndexOutOfBoundsException("n out of bounds: " + n);
+        if (sweeps == 0) throw new IllegalStateException("no sweeps run yet");
+
+        return sums[n] / sweeps;
+    }
+
+    /**
+     * Computes sum over n of B(N^2, n, p) Q(n), where Q(n) = sums[n] / sweeps
+     */
+    private double convolve(double[] sums, double p)
+    {
+        if (!(p >= 0.0 && p <= 1.0)) throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        if (sweeps == 0) throw new IllegalStateException("no sweeps run yet");
+
+        if (p == 0.0) return sums[0] / sweeps;
+        if (p == 1.0) return sums[sites] / sweeps;
+
+        // Start at the mode with weight 1 and walk outwards with the ratio
+        // B(n+1) / B(n) = (M - n) / (n + 1) * p / (1 - p); stop once the
+        // weights underflow relative to the mode, then normalise.
+        int mode = (int) Math.floor((sites + 1) * p);
+        if (mode > sites) mode = sites;
+        double ratio = p / (1.0 - p);
+
+        double total  = 1.0;
+        double result = sums[mode];
+
+        double w = 1.0;
+        for (int n = mode + 1; n <= sites; n++)
+        {
+            w *= (double) (sites - n + 1) / n * ratio;
+            if (w < 1e-17) break;
+            total  += w;
+            result += w * sums[n];
+        }
+
+        w = 1.0;
+        for (int n = mode - 1; n >= 0; n--)
+        {
+            w *= (double) (n + 1) / (sites - n) / ratio;
+            if (w < 1e-17) break;
+            total  += w;
+            result += w * sums[n];
+        }
+
+        return result / total / sweeps;
+    }
+
+    /**
+     * Takes N, the number of sweeps, a seed and a list of probabilities, and
+     * prints the spanning probability, largest cluster fraction and mean
+     * cluster size at each probability.
+     *
+     * @param args N, sweeps, seed, p1, p2, ...
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 4)
+        {
+            throw new IllegalArgumentException("Provide arguments: main(N,sweeps,seed,p...)");
+        }
+
+        int N      = Integer.parseInt(args[0]);
+        int count  = Integer.parseInt(args[1]);
+        long seed  = Long.parseLong(args[2]);
+
+        NewmanZiff nz = new NewmanZiff(N);
+        for (int s = 0; s < count; s++)
+        {
+            nz.sweep(SplitMix64.stream(seed, s));
+        }
+
+        System.out.println("p, spanning probability, largest cluster fraction, mean cluster size");
+        for (int a = 3; a < args.length; a++)
+        {
+            double p = Double.parseDouble(args[a]);
+            System.out.println(p + ", " + nz.spanningProbabilityAt(p) + ", "
+                    + nz.largestClusterAt(p) / nz.sites() + ", "
+                    + nz.meanClusterSizeAt(p));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ *
+ * Compilation: javac OpenSites.java
+ * Execution: none (library class)
+ *
+ * Bit-packed open/blocked state of a rows x cols grid of sites, one bit per
+ * site in a flat long[] in row-major order. Each row starts on a word
+ * boundary (the last word of a row is padded with zero bits), so a row is
+ * wordsPerRow() consecutive words and row scans and word-parallel engines
+ * never have to shift across rows.
+ *
+ * Indices are 0-based here: row in [0, rows), col in [0, cols). Bit b of
+ * word w in a row is column 64 * w + b.
+ *
+ */
+
+public class OpenSites
+{
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+    private final long lastWordMask;    // Valid bits of the last word of a row
+    private final long[] words;
+
+    /**
+     * Creates an N-by-N grid with all sites blocked
+     *
+     * @param N grid size
+     */
+    public OpenSites(int N)
+    {
+        this(N, N);
+    }
+
+    /**
+     * Creates a rows-by-cols grid with all sites blocked
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public OpenSites(int rows, int cols)
+    {
+        if (rows <= 0 || cols <= 0)
+        {
+            throw new IllegalArgumentException("rows="+rows+" cols="+cols);
+        }
+
+        this.rows         = rows;
+        this.cols         = cols;
+        this.wordsPerRow  = (cols + 63) >>> 6;
+        this.lastWordMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        this.words        = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * Opens a site
+     *
+     * @param row 0-based row
+     * @param col 0-based column
+     * @return true if the site was blocked before
+     */
+    public boolean open(int row, int col)
+    {
+        int  index = row * wordsPerRow + (col >>> 6);
+        long bit   = 1L << col;
+        long old   = words[index];
+        words[index] = old | bit;
+        return (old & bit) == 0;
+    }
+
+    /**
+     * Blocks a site again
+     *
+     * @param row 0-based row
+     * @param col 0-based column
+     */
+    public void close(int row, int col)
+    {
+        words[row * wordsPerRow + (col >>> 6)] &= ~(1L << col);
+    }
+
+    /**
+     * @param row 0-based row
+     * @param col 0-based column
+     * @return true if the site is open
+     */
+    public boolean isOpen(int row, int col)
+    {
+        return (words[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Blocks every site
+     */
+    public void clear()
+    {
+        java.util.Arrays.fill(words, 0L);
+    }
+
+    /**
+     * @return number of open sites, counted a word at a time
+     */
+    public long count()
+    {
+        long count = 0;
+        for (long word : words)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @param row 0-based row
+     * @return number of open sites in the row
+     */
+    public int countInRow(int row)
+    {
+        int count = 0;
+        int base  = row * wordsPerRow;
+        for (int w = 0; w < wordsPerRow; w++)
+        {
+            count += Long.bitCount(words[base + w]);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first open site of a row at or after a column
+     *
+     * @param row     0-based row
+     * @param fromCol 0-based column to start from
+     * @return column of the first open site, or -1 if there is none
+     */
+    public int nextOpenInRow(int row, int fromCol)
+    {
+        if (fromCol >= cols) return -1;
+
+        int base = row * wordsPerRow;
+        int w    = fromCol >>> 6;
+        long word = words[base + w] & (-1L << fromCol);
+        while (true)
+        {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == wordsPerRow) return -1;
+            word = words[base + w];
+        }
+    }
+
+    /**
+     * Returns one word of a row
+     *
+     * @param row  0-based row
+     * @param word word number within the row, in [0, wordsPerRow())
+     * @return bits for columns 64 * word .. 64 * word + 63
+     */
+    public long word(int row, int word)
+    {
+        return words[row * wordsPerRow + word];
+    }
+
+    /**
+     * Replaces one word of a row; bits past the last column are dropped
+     *
+     * @param row   0-based row
+     * @param word  word number within the row, in [0, wordsPerRow())
+     * @param value new bits
+     */
+    public void setWord(int row, int word, long value)
+    {
+        if (word == wordsPerRow - 1) value &= lastWordMask;
+        words[row * wordsPerRow + word] = value;
+    }
+
+    /**
+     * @return mask of the columns in use in the last word of a row
+     */
+    public long lastWordMask()
+    {
+        return lastWordMask;
+    }
+
+    /**
+     * @return number of words per row
+     */
+    public int wordsPerRow()
+    {
+        return wordsPerRow;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int rows()
+    {
+        return rows;
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int cols()
+    {
+        return cols;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ *
+ * Compilation: javac OrderedTrial.java
+ * Execution: none (library class)
+ *
+ * PercolationTrial for the models that open the elements of one random
+ * order until the system percolates: the sites of a PercolationEngine by
+ * default, or whatever open() is overridden to open, such as the bonds of
+ * BondPercolation. The engine and the order are reset between trials
+ * instead of being allocated again.
+ *
+ * The order array is kept from trial to trial (see SiteOrder.reset()), so
+ * a trial depends on the trials run before it until rewind() puts the
+ * array back into row-major order.
+ *
+ */
+
+public abstract class OrderedTrial implements PercolationTrial
+{
+    private final PercolationEngine engine;
+    private final int N;
+    private final SiteOrder order;
+    private SplitMix64 random;          // stream of the last trial
+    private boolean used;               // engine has sites open
+
+    /**
+     * @param engine engine with every site blocked
+     * @param N      grid size
+     * @param size   number of elements of the random order
+     */
+    protected OrderedTrial(PercolationEngine engine, int N, int size)
+    {
+        if (engine == null) throw new NullPointerException("engine");
+
+        this.engine = engine;
+        this.N      = N;
+        this.random = new SplitMix64(0L);
+        this.order  = SiteOrder.ofSize(size, random);
+    }
+
+    /**
+     * Blocks every site of the engine again
+     */
+    protected abstract void reset();
+
+    /**
+     * Opens element k of the order, site k in row-major order by default
+     *
+     * @param k element number, 0 .. size - 1
+     */
+    protected void open(int k)
+    {
+        engine.open(k / N + 1, k % N + 1);
+    }
+
+    /**
+     * Opens the elements of the order until the system percolates
+     *
+     * @param random random stream of the trial
+     * @return fraction of the order that was open when the system percolated
+     */
+    @Override
+    public double run(SplitMix64 random)
+    {
+        if (used) reset();
+        used = true;
+
+        this.random = random;
+        order.reset(random);
+
+        // Every element of the order is still blocked, so no draw is wasted
+        do {
+            open(order.next());
+        } while (!engine.percolates());
+
+        return order.count() / (double) order.size();
+    }
+
+    @Override
+    public void rewind()
+    {
+        order.restart(random);
+    }
+}
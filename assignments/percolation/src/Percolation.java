@@ -6,23 +6,33 @@
  * Compilation: javac Percolation.java'
  * Execution: java Percolation 100
  *
- * Implements percolation simulation for an N x N site matrix using weighted
- * quick union algorithm from algs4.jar library.
+ * Implements percolation simulation for an N x N site matrix using the
+ * weighted quick union algorithm of algs4.jar, as the in-project
+ * WeightedUnionFind that can be reset in place (or, on request, algs4's
+ * WeightedQuickUnionUF itself or HalvingUnionFind; see UnionFindKind).
  *
  * Main method implements a small unit test. Argument must be provided to
  * define the size of the matrix to be used (N).
  *
  */
 
-public class Percolation
+public class Percolation implements PercolationEngine
 {
     private final int N;
     private final int size;
     private final int virtualTop;
     private final int virtualBottom;;
-    private final boolean[][] opened;
-    private final WeightedQuickUnionUF ufTop;
-    private final WeightedQuickUnionUF ufBottom;
+    private final OpenSites opened;
+    private final UnionFind ufTop;
+    private final UnionFind ufBottom;
+
+    // Optional incremental fullness tracking, see enableFillTracking()
+    private int[] fillStep;             // Open step at which a site became full, 0 if not full
+    private int[] fillOrder;            // Sites (0-based, row-major) in the order they became full
+    private int filled;                 // Number of full sites
+    private int steps;                  // Number of sites opened since tracking started
+
+    private ClusterStats clusters;      // Cluster sizes, null unless enabled
 
     /**
      * Creates an N-by-N grid, with all sites blocked
@@ -30,6 +40,18 @@ public class Percolation
      * @param N
      */
     public Percolation(int N)
+    {
+        this(N, UnionFindKind.WEIGHTED);
+    }
+
+    /**
+     * Creates an N-by-N grid, with all sites blocked, on the given union-find
+     * implementation
+     *
+     * @param N
+     * @param kind union-find implementation for both structures
+     */
+    public Percolation(int N, UnionFindKind kind)
     {
         if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
 
@@ -39,10 +61,101 @@ public class Percolation
         this.virtualTop    = 0;
         this.virtualBottom = size - 1;
 
-        this.ufTop    = new WeightedQuickUnionUF(size);
-        this.ufBottom = new WeightedQuickUnionUF(size);
+        this.ufTop    = kind.create(size);
+        this.ufBottom = kind.create(size);
 
-        this.opened = new boolean[N + 1][N + 1];
+        this.opened = new OpenSites(N);
+    }
+
+    /**
+     * Creates an N-by-N grid from a complete occupancy matrix, much faster
+     * than opening the sites one by one.
+     *
+     * @param grid grid[i - 1][j - 1] is true if site (i, j) is open
+     * @return percolation system with exactly those sites open
+     * @throws IllegalArgumentException if the matrix is empty or not square
+     */
+    public static Percolation fromGrid(boolean[][] grid)
+    {
+        int N = grid.length;
+        Percolation percolation = new Percolation(N);
+        for (int r = 0; r < N; r++)
+        {
+            if (grid[r].length != N)
+            {
+                throw new IllegalArgumentException("grid must be " + N + " x " + N);
+            }
+            for (int c = 0; c < N; c++)
+            {
+                if (grid[r][c]) percolation.opened.open(r, c);
+            }
+        }
+        percolation.connectAll();
+        return percolation;
+    }
+
+    /**
+     * Creates an N-by-N grid with the open sites of a bitmap, much faster
+     * than opening the sites one by one.
+     *
+     * @param sites N-by-N open sites
+     * @return percolation system with exactly those sites open
+     * @throws IllegalArgumentException if the bitmap is not square
+     */
+    public static Percolation fromSites(OpenSites sites)
+    {
+        int N = sites.rows();
+        if (sites.cols() != N)
+        {
+            throw new IllegalArgumentException("sites must be square: " + N + " x " + sites.cols());
+        }
+
+        Percolation percolation = new Percolation(N);
+        for (int r = 0; r < N; r++)
+        {
+            for (int w = 0; w < sites.wordsPerRow(); w++)
+            {
+                percolation.opened.setWord(r, w, sites.word(r, w));
+            }
+        }
+        percolation.connectAll();
+        return percolation;
+    }
+
+    /**
+     * One linear pass over the open sites of a freshly filled grid: every
+     * open site is united with its left and upper neighbours only (the
+     * right and lower ones get it when their turn comes), then the first
+     * and last rows are tied to the virtual top and bottom sites.
+     */
+    private void connectAll()
+    {
+        for (int r = 0; r < N; r++)
+        {
+            for (int c = opened.nextOpenInRow(r, 0); c >= 0; c = opened.nextOpenInRow(r, c + 1))
+            {
+                int site = xyTo1D(r + 1, c + 1);
+                if (c > 0 && opened.isOpen(r, c - 1))
+                {
+                    ufTop.union(site, site - 1);
+                    ufBottom.union(site, site - 1);
+                }
+                if (r > 0 && opened.isOpen(r - 1, c))
+                {
+                    ufTop.union(site, site - N);
+                    ufBottom.union(site, site - N);
+                }
+                if (r == 0)
+                {
+                    ufTop.union(site, virtualTop);
+                    ufBottom.union(site, virtualTop);
+                }
+                if (r == N - 1)
+                {
+                    ufBottom.union(site, virtualBottom);
+                }
+            }
+        }
     }
 
     /**
@@ -74,41 +187,60 @@ public class Percolation
     {
         validateIndices(i, j);
 
-        if (!opened[i][j])
+        if (opened.open(i - 1, j - 1))
         {
-            opened[i][j] = true;
-
-            if ((i - 1 > 0) && opened[i - 1][j])
+            // The new site starts as a root of its own in both structures
+            // and the roots are tracked from union to union, so each open
+            // neighbour costs one find per structure instead of two
+            int site   = xyTo1D(i, j);
+            int top    = site;
+            int bottom = site;
+
+            if ((i - 1 > 0) && opened.isOpen(i - 2, j - 1))
             {
-                ufTop.union(xyTo1D(i, j), xyTo1D(i - 1, j));
-                ufBottom.union(xyTo1D(i, j), xyTo1D(i - 1, j));
+                top    = join(ufTop, top, site - N);
+                bottom = join(ufBottom, bottom, site - N);
             }
 
-            if ((i + 1 <= N) && opened[i + 1][j])
+            if ((i + 1 <= N) && opened.isOpen(i, j - 1))
             {
-                ufTop.union(xyTo1D(i, j), xyTo1D(i + 1, j));
-                ufBottom.union(xyTo1D(i, j), xyTo1D(i + 1, j));
+                top    = join(ufTop, top, site + N);
+                bottom = join(ufBottom, bottom, site + N);
             }
 
-            if ((j - 1 > 0) && opened[i][j - 1])
+            if ((j - 1 > 0) && opened.isOpen(i - 1, j - 2))
             {
-                ufTop.union(xyTo1D(i, j), xyTo1D(i, j - 1));
-                ufBottom.union(xyTo1D(i, j), xyTo1D(i, j - 1));
+                top    = join(ufTop, top, site - 1);
+                bottom = join(ufBottom, bottom, site - 1);
             }
 
-            if ((j + 1 <= N) && opened[i][j + 1])
+            if ((j + 1 <= N) && opened.isOpen(i - 1, j))
             {
-                ufTop.union(xyTo1D(i, j), xyTo1D(i, j + 1));
-                ufBottom.union(xyTo1D(i, j), xyTo1D(i, j + 1));
+                top    = join(ufTop, top, site + 1);
+                bottom = join(ufBottom, bottom, site + 1);
             }
 
             if (i == 1)
             {
-                ufTop.union(xyTo1D(i, j), virtualTop);
-                ufBottom.union(xyTo1D(i, j), virtualTop);
+                top    = join(ufTop, top, virtualTop);
+                bottom = join(ufBottom, bottom, virtualTop);
             }
             if (i == N)
-                ufBottom.union(xyTo1D(i, j), virtualBottom);
+                join(ufBottom, bottom, virtualBottom);
+
+            if (clusters != null)
+            {
+                addToClusters(i - 1, j - 1);
+            }
+
+            if (fillStep != null)
+            {
+                steps++;
+                if (top == ufTop.find(virtualTop))
+                {
+                    fill(site - 1);
+                }
+            }
         }
         // Debugging
 //        if (percolates())
@@ -124,6 +256,228 @@ public class Percolation
     }
 
 
+    /**
+     * Merges the component of q into the component rooted at root, exactly
+     * as uf.union(p, q) would for any p in that component
+     *
+     * @return root of the merged component
+     */
+    private static int join(UnionFind uf, int root, int q)
+    {
+        int rootQ = uf.find(q);
+        return rootQ == root ? root : uf.link(root, rootQ);
+    }
+
+    /**
+     * Turns on incremental fullness tracking: from now on every open() that
+     * connects sites to the top marks them full right away, recording the
+     * step at which each one became full. isFull() becomes an array lookup
+     * and the sites that became full since some point can be listed with
+     * filledSite(), so a redraw only has to touch changed cells. Costs
+     * three int arrays of N^2 entries and O(N^2) time over a whole run.
+     *
+     * @throws IllegalStateException if a site has already been opened
+     */
+    public void enableFillTracking()
+    {
+        if (fillStep != null) return;
+        if (opened.count() != 0)
+        {
+            throw new IllegalStateException("fill tracking must be enabled before opening sites");
+        }
+
+        fillStep  = new int[N * N];
+        fillOrder = new int[N * N];
+    }
+
+    /**
+     * Marks the new full site and every open, not yet full site connected
+     * to it through such sites. All of them just joined the component of
+     * the virtual top.
+     *
+     * @param start 0-based site that was just opened and is full
+     */
+    private void fill(int start)
+    {
+        // fillOrder doubles as the work stack: sites between the already
+        // processed ones and filled are still to be expanded
+        int next = filled;
+        fillStep[start]     = steps;
+        fillOrder[filled++] = start;
+
+        while (next < filled)
+        {
+            int site = fillOrder[next++];
+            int r = site / N;
+            int c = site % N;
+            if (r > 0)     fillNeighbour(site - N, r - 1, c);
+            if (r < N - 1) fillNeighbour(site + N, r + 1, c);
+            if (c > 0)     fillNeighbour(site - 1, r, c - 1);
+            if (c < N - 1) fillNeighbour(site + 1, r, c + 1);
+        }
+    }
+
+    private void fillNeighbour(int site, int r, int c)
+    {
+        if (fillStep[site] == 0 && opened.isOpen(r, c))
+        {
+            fillStep[site]      = steps;
+            fillOrder[filled++] = site;
+        }
+    }
+
+    /**
+     * Step at which site (row i, column j) became full, counting opened
+     * sites from 1
+     *
+     * @param i
+     * @param j
+     * @return the step, or 0 if the site is not full
+     * @throws IllegalStateException if fill tracking is not enabled
+     */
+    public int fillStep(int i, int j)
+    {
+        validateIndices(i, j);
+        checkFillTracking();
+
+        return fillStep[xyTo1D(i, j) - 1];
+    }
+
+    /**
+     * @return number of full sites
+     * @throws IllegalStateException if fill tracking is not enabled
+     */
+    public int numberOfFullSites()
+    {
+        checkFillTracking();
+
+        return filled;
+    }
+
+    /**
+     * Returns the k-th site to become full. Sites that became full after a
+     * redraw are filledSite(before) .. filledSite(numberOfFullSites() - 1).
+     *
+     * @param k index, between 0 and numberOfFullSites() - 1
+     * @return 0-based row-major site number (row = site / N + 1, column = site % N + 1)
+     * @throws IllegalStateException if fill tracking is not enabled
+     */
+    public int filledSite(int k)
+    {
+        checkFillTracking();
+        if (k < 0 || k >= filled)
+        {
+            throw new IndexOutOfBoundsException("k out of bounds: " + k);
+        }
+
+        return fillOrder[k];
+    }
+
+    private void checkFillTracking()
+    {
+        if (fillStep == null)
+        {
+            throw new IllegalStateException("fill tracking is not enabled");
+        }
+    }
+
+    /**
+     * Turns on incremental cluster statistics: a second union-find without
+     * virtual sites keeps the size of every cluster at its root, and each
+     * open() updates the number of clusters, the largest cluster size and
+     * the cluster size histogram in O(1) per merge. Sites opened before the
+     * call are taken into account. Costs two int arrays of about N^2 entries.
+     */
+    public void enableClusterStats()
+    {
+        if (clusters != null) return;
+
+        clusters = new ClusterStats(N * N);
+        for (int r = 0; r < N; r++)
+        {
+            for (int c = opened.nextOpenInRow(r, 0); c >= 0; c = opened.nextOpenInRow(r, c + 1))
+            {
+                // Sites right and below are not added yet; they link back later
+                int site = r * N + c;
+                clusters.add(site);
+                if (c > 0 && opened.isOpen(r, c - 1)) clusters.union(site, site - 1);
+                if (r > 0 && opened.isOpen(r - 1, c)) clusters.union(site, site - N);
+            }
+        }
+    }
+
+    /**
+     * Adds open site (row r, column c), 0-based, to the cluster statistics
+     * and merges it with its open neighbours
+     */
+    private void addToClusters(int r, int c)
+    {
+        int site = r * N + c;
+        clusters.add(site);
+        if (r > 0 && opened.isOpen(r - 1, c))     clusters.union(site, site - N);
+        if (r < N - 1 && opened.isOpen(r + 1, c)) clusters.union(site, site + N);
+        if (c > 0 && opened.isOpen(r, c - 1))     clusters.union(site, site - 1);
+        if (c < N - 1 && opened.isOpen(r, c + 1)) clusters.union(site, site + 1);
+    }
+
+    /**
+     * @return number of clusters of open sites
+     * @throws IllegalStateException if cluster statistics are not enabled
+     */
+    public int numberOfClusters()
+    {
+        checkClusterStats();
+        return clusters.clusters();
+    }
+
+    /**
+     * @return number of sites in the largest cluster, 0 if no site is open
+     * @throws IllegalStateException if cluster statistics are not enabled
+     */
+    public int largestCluster()
+    {
+        checkClusterStats();
+        return clusters.largest();
+    }
+
+    /**
+     * Number of clusters with exactly the given number of sites; together
+     * for all sizes this is the cluster size histogram
+     *
+     * @param size cluster size
+     * @return number of clusters of that size
+     * @throws IllegalStateException if cluster statistics are not enabled
+     */
+    public int numberOfClustersOfSize(int size)
+    {
+        checkClusterStats();
+        return clusters.clustersOfSize(size);
+    }
+
+    /**
+     * Size of the cluster containing site (row i, column j)
+     *
+     * @param i
+     * @param j
+     * @return number of sites in the cluster, 0 if the site is blocked
+     * @throws IllegalStateException if cluster statistics are not enabled
+     */
+    public int clusterSize(int i, int j)
+    {
+        validateIndices(i, j);
+        checkClusterStats();
+
+        return clusters.clusterSize(xyTo1D(i, j) - 1);
+    }
+
+    private void checkClusterStats()
+    {
+        if (clusters == null)
+        {
+            throw new IllegalStateException("cluster statistics are not enabled");
+        }
+    }
+
     /**
      * Is site (row i, column j) open?
      *
@@ -135,7 +489,7 @@ public class Percolation
     {
         validateIndices(i, j);
 
-        return opened[i][j];
+        return opened.isOpen(i - 1, j - 1);
     }
 
     /**
@@ -149,7 +503,12 @@ public class Percolation
     {
         validateIndices(i, j);
 
-        if (opened[i][j])
+        if (fillStep != null)
+        {
+            return fillStep[xyTo1D(i, j) - 1] != 0;
+        }
+
+        if (opened.isOpen(i - 1, j - 1))
         {
             return ufTop.connected(xyTo1D(i, j), virtualTop);
         }
@@ -167,18 +526,49 @@ public class Percolation
     }
 
 
+    /**
+     * @return number of open sites
+     */
+    public int numberOfOpenSites()
+    {
+        return (int) opened.count();
+    }
+
+    /**
+     * Blocks every site again, reusing the arrays, so that one instance can
+     * run many trials; fill tracking and cluster statistics stay enabled
+     * if they were
+     */
+    public void reset()
+    {
+        opened.clear();
+        ufTop.reset();
+        ufBottom.reset();
+
+        if (fillStep != null)
+        {
+            java.util.Arrays.fill(fillStep, 0);
+            filled = 0;
+            steps  = 0;
+        }
+        if (clusters != null)
+        {
+            clusters.reset();
+        }
+    }
+
     /**
      * Print out matrix
      *
-     * @param arr
+     * @param sites
      */
-    private void printArray(boolean[][] arr)
+    private void printArray(OpenSites sites)
     {
-        for (int i = 0; i < arr.length; i++)
+        for (int i = 0; i < sites.rows(); i++)
         {
-            for (int j = 0; j < arr.length; j++)
+            for (int j = 0; j < sites.cols(); j++)
             {
-                if (arr[i][j] == false)
+                if (!sites.isOpen(i, j))
                 {
                     System.out.print(" 0 ");
                 }
@@ -0,0 +1,107 @@
+/****************************************************************************
+ *  Compilation:  javac PercolationCanvas.java
+ *  Execution:    none (used by PercolationVisualizer and
+ *                InteractivePercolationVisualizer)
+ *  Dependencies: Percolation.java StdDraw.java
+ *
+ *  Incremental drawing of an N-by-N percolation system. StdDraw in
+ *  animation mode draws into an off-screen image, so instead of clearing
+ *  and redrawing all N^2 squares after every opened site, this class
+ *  paints only the squares that changed: the site just opened and the
+ *  sites that became full (read from the fill log of a Percolation with
+ *  fill tracking enabled). Showing the off-screen image is capped at a
+ *  fixed frame rate, so large inputs animate at interactive speed.
+ *
+ *  All StdDraw calls go through drawBackground(), paint() and
+ *  drawStatus(), so a test can override them and check which squares
+ *  are repainted without opening a window.
+ *
+ ****************************************************************************/
+
+import java.awt.Font;
+
+public class PercolationCanvas {
+
+    // frame rate the visualizers show the off-screen image at, at most
+    public static final int FRAMES_PER_SECOND = 30;
+
+    private final Percolation perc;
+    private final int N;
+    private final long frameNanos;     // minimum time between two frames
+    private int paintedFull;           // full sites of the fill log painted so far
+    private int opened;                // number of open sites
+    private long lastFrame;
+
+    // start drawing perc, which must not have any open site yet
+    public PercolationCanvas(Percolation perc, int N, int framesPerSecond) {
+        if (framesPerSecond <= 0) throw new IllegalArgumentException("framesPerSecond must be > 0");
+
+        this.perc       = perc;
+        this.N          = N;
+        this.frameNanos = 1000000000L / framesPerSecond;
+        perc.enableFillTracking();
+
+        drawBackground();
+        show();
+    }
+
+    // start drawing perc at the given frame rate, see FRAMES_PER_SECOND
+    public PercolationCanvas(Percolation perc, int N) {
+        this(perc, N, FRAMES_PER_SECOND);
+    }
+
+    // open site (i, j) and paint the squares that changed
+    public void open(int i, int j) {
+        if (perc.isOpen(i, j)) return;
+        perc.open(i, j);
+        opened++;
+
+        if (!perc.isFull(i, j)) paint(i, j, false);
+
+        int full = perc.numberOfFullSites();
+        for (; paintedFull < full; paintedFull++) {
+            int site = perc.filledSite(paintedFull);
+            paint(site / N + 1, site % N + 1, true);
+        }
+    }
+
+    // show the off-screen image if a frame is due
+    public void update() {
+        if (System.nanoTime() - lastFrame >= frameNanos) show();
+    }
+
+    // show the off-screen image now
+    public void show() {
+        drawStatus(opened, perc.percolates());
+        lastFrame = System.nanoTime();
+    }
+
+    // all sites blocked
+    void drawBackground() {
+        StdDraw.show(0);
+        StdDraw.clear();
+        StdDraw.setXscale(0, N);
+        StdDraw.setYscale(0, N);
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
+    }
+
+    // paint the square of site (i, j), full or open
+    void paint(int i, int j, boolean full) {
+        StdDraw.setPenColor(full ? StdDraw.BOOK_LIGHT_BLUE : StdDraw.WHITE);
+        StdDraw.filledSquare(j - 0.5, N - i + 0.5, 0.45);
+    }
+
+    // replace the status text and show the off-screen image
+    void drawStatus(int opened, boolean percolates) {
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.filledRectangle(N/2.0, -N*.025, N/2.0, N*.025);
+        StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.text(.25*N, -N*.025, opened + " open sites");
+        if (percolates) StdDraw.text(.75*N, -N*.025, "percolates");
+        else            StdDraw.text(.75*N, -N*.025, "does not percolate");
+
+        StdDraw.show(0);
+    }
+}
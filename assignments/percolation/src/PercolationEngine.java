@@ -0,0 +1,40 @@
+/**
+ *
+ * Compilation: javac PercolationEngine.java
+ * Execution: none (interface)
+ *
+ * Common API of the N-by-N site percolation implementations, so that
+ * PercolationStats and the visualizers can run with any of them. Indices i
+ * and j are between 1 and N, with (1, 1) the upper-left site.
+ *
+ */
+
+public interface PercolationEngine
+{
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i row index
+     * @param j column index
+     */
+    void open(int i, int j);
+
+    /**
+     * @param i row index
+     * @param j column index
+     * @return true if the site at location i,j is open
+     */
+    boolean isOpen(int i, int j);
+
+    /**
+     * @param i row index
+     * @param j column index
+     * @return true if the site at location i,j is full
+     */
+    boolean isFull(int i, int j);
+
+    /**
+     * @return true if the grid percolates
+     */
+    boolean percolates();
+}
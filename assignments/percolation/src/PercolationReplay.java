@@ -0,0 +1,245 @@
+/**
+ *
+ * Compilation: javac PercolationReplay.java
+ * Execution: java PercolationReplay data/input20.txt [more files]
+ *
+ * Replays a recorded opening sequence in the format of the data/input*.txt
+ * files (N, then one "i j" pair per step) without drawing anything, and
+ * reports the step at which the system first percolates, the site opened
+ * at that step, and the fraction of open sites at that moment.
+ *
+ * The file is read once, through a small tokenizer that parses integers
+ * straight from a 64 KB byte buffer, and the sites go into a
+ * CompactPercolation on HalvingUnionFind, so each step costs a few byte
+ * comparisons and one or two finds. Reading stops at the percolating step,
+ * which makes multi-million-step sequences cheap.
+ *
+ */
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public final class PercolationReplay
+{
+    private final int N;
+    private final long steps;           // Steps read
+    private final long openSites;       // Open sites after the last step read
+    private final int row;              // Site of the percolating step, 0 if none
+    private final int col;
+    private final boolean percolates;
+
+    private PercolationReplay(int N, long steps, long openSites, int row, int col, boolean percolates)
+    {
+        this.N          = N;
+        this.steps      = steps;
+        this.openSites  = openSites;
+        this.row        = row;
+        this.col        = col;
+        this.percolates = percolates;
+    }
+
+    /**
+     * Replays an opening sequence up to the step at which it percolates, or
+     * to its end if it never does
+     *
+     * @param input opening sequence; not closed
+     * @return what happened
+     * @throws IOException on read errors or malformed input
+     * @throws IndexOutOfBoundsException if a step opens a site outside the grid
+     */
+    public static PercolationReplay replay(InputStream input) throws IOException
+    {
+        Tokenizer in = new Tokenizer(input);
+        long N = in.next();
+        if (N <= 0)        throw new IOException("missing grid size");
+        if (N > 46340)     throw new IOException("grid size too large: " + N);
+
+        CompactPercolation percolation = new CompactPercolation((int) N, UnionFindKind.HALVING);
+        long steps = 0;
+        long open  = 0;
+        while (true)
+        {
+            long i = in.next();
+            if (i < 0) break;
+            long j = in.next();
+            if (j < 0) throw new EOFException("sequence ends inside step " + (steps + 1));
+            if (i > N || j > N)
+            {
+                throw new IndexOutOfBoundsException("step " + (steps + 1) + " opens " + i + " " + j);
+            }
+
+            steps++;
+            if (percolation.isOpen((int) i, (int) j)) continue;
+
+            percolation.open((int) i, (int) j);
+            open++;
+            if (percolation.percolates())
+            {
+                return new PercolationReplay((int) N, steps, open, (int) i, (int) j, true);
+            }
+        }
+        return new PercolationReplay((int) N, steps, open, 0, 0, false);
+    }
+
+    /**
+     * Non-negative integers separated by whitespace, parsed from a byte buffer
+     */
+    private static final class Tokenizer
+    {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+
+        Tokenizer(InputStream in)
+        {
+            this.in = in;
+        }
+
+        private int read() throws IOException
+        {
+            if (position == limit)
+            {
+                limit    = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0)
+                {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /**
+         * @return the next integer, or -1 at the end of the input
+         */
+        long next() throws IOException
+        {
+            int ch = read();
+            while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n') ch = read();
+            if (ch < 0) return -1;
+            if (ch < '0' || ch > '9') throw new IOException("unexpected character '" + (char) ch + "'");
+
+            long value = 0;
+            while (ch >= '0' && ch <= '9')
+            {
+                value = 10 * value + (ch - '0');
+                if (value > Integer.MAX_VALUE) throw new IOException("number too large");
+                ch = read();
+            }
+            if (ch >= 0 && ch != ' ' && ch != '\t' && ch != '\r' && ch != '\n')
+            {
+                throw new IOException("unexpected character '" + (char) ch + "'");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return true if the sequence percolates
+     */
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * @return 1-based step at which the system first percolates, 0 if it never does
+     */
+    public long step()
+    {
+        return percolates ? steps : 0;
+    }
+
+    /**
+     * @return row of the site that made the system percolate, 0 if none
+     */
+    public int row()
+    {
+        return row;
+    }
+
+    /**
+     * @return column of the site that made the system percolate, 0 if none
+     */
+    public int col()
+    {
+        return col;
+    }
+
+    /**
+     * @return number of steps read: up to the percolating one, or all of them
+     */
+    public long stepsRead()
+    {
+        return steps;
+    }
+
+    /**
+     * @return number of open sites after the last step read; repeated steps
+     *         on an open site do not count
+     */
+    public long openSites()
+    {
+        return openSites;
+    }
+
+    /**
+     * @return fraction of the N^2 sites open after the last step read
+     */
+    public double openFraction()
+    {
+        return openSites / ((double) N * N);
+    }
+
+    /**
+     * @return grid size
+     */
+    public int size()
+    {
+        return N;
+    }
+
+    /**
+     * Replays each file given and prints when it percolates.
+     *
+     * @param args opening sequence files
+     * @throws IOException on read errors or malformed input
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0)
+        {
+            throw new IllegalArgumentException("Provide at least 1 argument: main(file...)");
+        }
+
+        for (String file : args)
+        {
+            InputStream in = new FileInputStream(file);
+            PercolationReplay replay;
+            try
+            {
+                replay = replay(in);
+            }
+            finally
+            {
+                in.close();
+            }
+
+            System.out.println(file);
+            if (replay.percolates())
+            {
+                System.out.println("  percolates at step    = " + replay.step());
+                System.out.println("  connecting site       = " + replay.row() + " " + replay.col());
+            }
+            else
+            {
+                System.out.println("  percolates            = false after " + replay.stepsRead() + " steps");
+            }
+            System.out.println("  open fraction         = " + replay.openFraction());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *
+ * Compilation: javac PercolationSnapshot.java
+ * Execution: java PercolationSnapshot input50.txt input50.png [pixels [any-full]]
+ *            java PercolationSnapshot 10000 0.593 42 grid.png [pixels [any-full]]
+ *
+ * Headless PNG rendering of a percolation system, for batch jobs on
+ * machines without a display. Full sites are drawn light blue, open sites
+ * white and blocked sites black, as in PercolationVisualizer, but through
+ * a BufferedImage and ImageIO instead of StdDraw.
+ *
+ * An N x N grid is downsampled to at most pixels x pixels. Every pixel
+ * stands for a block of sites and takes the colour of the majority of them
+ * (MAJORITY) or light blue as soon as one of them is full (ANY_FULL, which
+ * keeps thin full paths visible). The grid is read in a single pass, one
+ * band of rows per pixel row, keeping only per-pixel counters for the
+ * current band.
+ *
+ */
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+public final class PercolationSnapshot
+{
+    private static final int FULL    = 0x67c6f3;    // StdDraw.BOOK_LIGHT_BLUE
+    private static final int OPEN    = 0xffffff;
+    private static final int BLOCKED = 0x000000;
+
+    /**
+     * How the sites of a block are combined into one pixel
+     */
+    public enum Aggregation
+    {
+        /** Colour of the most common state; ties go to full, then open */
+        MAJORITY,
+
+        /** Full if any site is full, otherwise the majority of open/blocked */
+        ANY_FULL
+    }
+
+    private PercolationSnapshot()
+    {
+    }
+
+    /**
+     * Renders a percolation system
+     *
+     * @param perc        system to render
+     * @param N           grid size
+     * @param pixels      maximum width and height of the image
+     * @param aggregation how blocks of sites are combined
+     * @return image of min(N, pixels) x min(N, pixels) pixels
+     */
+    public static BufferedImage render(PercolationEngine perc, int N, int pixels, Aggregation aggregation)
+    {
+        if (N <= 0 || pixels <= 0) throw new IllegalArgumentException("N="+N+" pixels="+pixels);
+
+        int size = Math.min(N, pixels);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+
+        int[] full  = new int[size];
+        int[] open  = new int[size];
+        int[] total = new int[size];
+        int[] line  = new int[size];
+        int[] column = new int[N];          // Pixel column of every grid column
+        for (int col = 0; col < N; col++)
+        {
+            column[col] = (int) ((long) col * size / N);
+        }
+
+        int row = 1;
+        for (int y = 0; y < size; y++)
+        {
+            java.util.Arrays.fill(full, 0);
+            java.util.Arrays.fill(open, 0);
+            java.util.Arrays.fill(total, 0);
+
+            // Grid rows whose pixel row is y
+            for (; row <= N && (int) ((long) (row - 1) * size / N) == y; row++)
+            {
+                for (int col = 1; col <= N; col++)
+                {
+                    int x = column[col - 1];
+                    total[x]++;
+                    if (perc.isFull(row, col))      full[x]++;
+                    else if (perc.isOpen(row, col)) open[x]++;
+                }
+            }
+
+            for (int x = 0; x < size; x++)
+            {
+                line[x] = colour(full[x], open[x], total[x] - full[x] - open[x], aggregation);
+            }
+            image.setRGB(0, y, size, 1, line, 0, size);
+        }
+        return image;
+    }
+
+    private static int colour(int full, int open, int blocked, Aggregation aggregation)
+    {
+        if (aggregation == Aggregation.ANY_FULL)
+        {
+            if (full > 0) return FULL;
+            return open >= blocked ? OPEN : BLOCKED;
+        }
+        if (full >= open && full >= blocked) return FULL;
+        return open >= blocked ? OPEN : BLOCKED;
+    }
+
+    /**
+     * Renders a percolation system to a PNG file
+     *
+     * @param perc        system to render
+     * @param N           grid size
+     * @param pixels      maximum width and height of the image
+     * @param aggregation how blocks of sites are combined
+     * @param file        PNG file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(PercolationEngine perc, int N, int pixels, Aggregation aggregation, File file)
+            throws IOException
+    {
+        if (!ImageIO.write(render(perc, N, pixels, aggregation), "png", file))
+        {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+    /**
+     * Writes a PNG of the grid described by a data/input*.txt style file or
+     * of a random grid filled at probability p.
+     *
+     * @param args input file and PNG file, or N, p, seed and PNG file;
+     *             optionally followed by the image size and "any-full"
+     * @throws IOException if the image cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        System.setProperty("java.awt.headless", "true");
+
+        boolean random = args.length > 0 && args[0].matches("\\d+");
+        int rest = random ? 4 : 2;
+        if (args.length < rest || args.length > rest + 2)
+        {
+            throw new IllegalArgumentException("Provide arguments: main(input,png[,pixels[,any-full]]) "
+                    + "or main(N,p,seed,png[,pixels[,any-full]])");
+        }
+
+        int pixels = args.length > rest ? Integer.parseInt(args[rest]) : 1024;
+        Aggregation aggregation = args.length > rest + 1 && args[rest + 1].equals("any-full")
+                                  ? Aggregation.ANY_FULL : Aggregation.MAJORITY;
+
+        PercolationEngine perc;
+        int N;
+        if (random)
+        {
+            N = Integer.parseInt(args[0]);
+            perc = BitboardPercolation.random(N, Double.parseDouble(args[1]),
+                                              new SplitMix64(Long.parseLong(args[2])));
+        }
+        else
+        {
+            In in = new In(args[0]);
+            N = in.readInt();
+            Percolation sites = new Percolation(N);
+            sites.enableFillTracking();
+            while (!in.isEmpty())
+            {
+                int i = in.readInt();
+                int j = in.readInt();
+                sites.open(i, j);
+            }
+            perc = sites;
+        }
+
+        write(perc, N, pixels, aggregation, new File(args[rest - 1]));
+    }
+}
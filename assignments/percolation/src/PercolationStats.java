@@ -4,73 +4,649 @@
  * Written: 2014.06.20
  *
  * Compilation: javac PercolationStats.java
- * Execution: java PercolationStats 200 100
+ * Execution: java PercolationStats 200 100 [seed [threads [engine [checkpoint]]]]
+ *            java PercolationStats 200 0.0005 [seed [threads [engine]]]
  *
  * Runs percolation experiment T times for an N x N site matrix and prints out
  * the mean, standard deviation, and the 95% confidence interval for the
- * percolation threshold. Use standard random from our standard libraries to
- * generate random numbers; use standard statistics to compute the sample mean
- * and standard deviation.
+ * percolation threshold. Trials run in parallel on a fixed worker pool; each
+ * trial has its own SplitMix64 stream derived from one master seed, and the
+ * per-block partial sums are reduced in a fixed order, so a run is
+ * reproducible for a given seed whatever the thread count. When T is given
+ * as a fraction, trials keep running until the 95% confidence interval is
+ * no wider than that on either side of the mean. With the BOND engine the
+ * trials open bonds instead of sites and the threshold is a bond fraction;
+ * with INVASION each trial is one invasion percolation run and its
+ * threshold estimate is the largest weight invaded. Given a checkpoint file,
+ * a run with a fixed T saves its progress there every minute and, when
+ * started again with the same arguments, resumes where it stopped.
  *
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class PercolationStats
 {
-    private double[] results;           // Contains computer thresholds for T iterations
-    private double   mean;              // Computed mean value for the results array
-    private double   stddev;            // Computed standard dev. for the results array
+    // Trials are handed to workers in fixed-size blocks. The block size does
+    // not depend on the thread count, and block results are merged in block
+    // order, so a given seed always yields bit-for-bit the same statistics.
+    static final int BLOCK_SIZE = 64;
+
+    // The 95% confidence interval is only trusted after this many trials
+    static final int MIN_TRIALS = 30;
+
+    // main() saves a checkpoint at most this often
+    private static final long CHECKPOINT_MILLIS = 60000L;
+
+    private double   mean;              // Computed mean value of the thresholds
+    private double   stddev;            // Computed standard dev. of the thresholds
     private double   confidenceLow;     // 95% confidence value lower bound
     private double   confidenceHigh;    // 95% confidence value higher bound
+    private long     trials;            // Number of experiments performed
 
     /**
      * Perform T independent computational experiments on an N-by-N grid
+     * using every available processor. The master seed is drawn from
+     * StdRandom, so StdRandom.setSeed() makes the run reproducible.
      *
      * @param N size of the matrix to be used
      * @param T the number of times to run the simulation
      */
     public PercolationStats(int N, int T)
+    {
+        this(N, T, randomSeed(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Perform T independent computational experiments on an N-by-N grid,
+     * spread over the given number of worker threads. Trial t draws its
+     * random numbers from SplitMix64.stream(seed, t), so the results only
+     * depend on N, T and seed, never on the number of threads.
+     *
+     * @param N       size of the matrix to be used
+     * @param T       the number of times to run the simulation
+     * @param seed    master seed for all trials
+     * @param threads number of worker threads
+     */
+    public PercolationStats(int N, int T, long seed, int threads)
+    {
+        this(N, T, seed, threads, EngineKind.TWO_UNION_FIND);
+    }
+
+    /**
+     * Perform T independent computational experiments on an N-by-N grid with
+     * the given percolation implementation.
+     *
+     * @param N       size of the matrix to be used
+     * @param T       the number of times to run the simulation
+     * @param seed    master seed for all trials
+     * @param threads number of worker threads
+     * @param engine  percolation implementation used for every trial
+     */
+    public PercolationStats(int N, int T, long seed, int threads, EngineKind engine)
+    {
+        this(runFixed(N, T, seed, threads, engine));
+    }
+
+    /**
+     * Performs T experiments like PercolationStats(N, T, seed, threads, engine)
+     * while saving its progress to a checkpoint file at the end and,
+     * whenever intervalMillis milliseconds have passed since the last save,
+     * as soon as the next block of BLOCK_SIZE trials finishes. If the file already holds
+     * a checkpoint of the same run, the run resumes after its last saved
+     * block and ends with exactly the numbers of an uninterrupted run.
+     *
+     * @param N              size of the matrix to be used
+     * @param T              the number of times to run the simulation
+     * @param seed           master seed for all trials
+     * @param threads        number of worker threads
+     * @param engine         percolation implementation used for every trial
+     * @param checkpoint     checkpoint file, created if it does not exist
+     * @param intervalMillis minimum time between two checkpoints
+     * @return statistics of all T trials
+     * @throws IOException if the checkpoint cannot be read or written
+     * @throws IllegalArgumentException if the checkpoint belongs to another run
+     */
+    public static PercolationStats resumable(int N, int T, long seed, int threads, EngineKind engine,
+                                             File checkpoint, long intervalMillis) throws IOException
+    {
+        return new PercolationStats(runCheckpointed(N, T, seed, threads, engine, checkpoint, intervalMillis));
+    }
+
+    /**
+     * Summarises the merged statistics of all trials
+     */
+    PercolationStats(RunningStats total)
+    {
+        // Compute mean threshold, standard dev. and 95% confidence boundaries.
+        trials          = total.count();
+        mean            = total.mean();
+        stddev          = total.stddev();
+        double delta    = halfWidth(total);
+        confidenceLow   = mean - delta;
+        confidenceHigh  = mean + delta;
+    }
+
+    /**
+     * Keeps running experiments on an N-by-N grid until the 95% confidence
+     * interval is at most halfWidth on either side of the mean (and at least
+     * 30 experiments were run), or maxTrials experiments were run.
+     * <p/>
+     * The stop rule is checked after every block of trials, in block order,
+     * on the streaming mean and variance; blocks that were already started
+     * in parallel past the stopping point are discarded, so the number of
+     * trials and the results still only depend on the seed.
+     *
+     * @param N         size of the matrix to be used
+     * @param halfWidth target half-width of the 95% confidence interval
+     * @param maxTrials upper bound on the number of experiments
+     * @param seed      master seed for all trials
+     * @param threads   number of worker threads
+     * @param engine    percolation implementation used for every trial
+     * @return statistics of the experiments that were run
+     */
+    public static PercolationStats untilHalfWidth(int N, double halfWidth, int maxTrials,
+                                                  long seed, int threads, EngineKind engine)
+    {
+        return new PercolationStats(runAdaptive(N, halfWidth, false, maxTrials, seed, threads, engine));
+    }
+
+    /**
+     * Like untilHalfWidth(), but the target half-width is relativeError
+     * times the current mean.
+     *
+     * @param N             size of the matrix to be used
+     * @param relativeError target half-width of the 95% confidence interval relative to the mean
+     * @param maxTrials     upper bound on the number of experiments
+     * @param seed          master seed for all trials
+     * @param threads       number of worker threads
+     * @param engine        percolation implementation used for every trial
+     * @return statistics of the experiments that were run
+     */
+    public static PercolationStats untilRelativeError(int N, double relativeError, int maxTrials,
+                                                      long seed, int threads, EngineKind engine)
+    {
+        return new PercolationStats(runAdaptive(N, relativeError, true, maxTrials, seed, threads, engine));
+    }
+
+    /**
+     * Estimates the probability that an N-by-N grid whose sites are open
+     * independently with probability p percolates, from T realizations.
+     * Realizations are simulated 64 at a time by BitSlicedPercolation, pass
+     * k using SplitMix64.stream(seed, k); the count of percolating
+     * realizations is an exact integer sum, so the estimate does not depend
+     * on the number of threads.
+     *
+     * @param N       size of the matrix to be used
+     * @param p       site occupation probability
+     * @param T       number of realizations
+     * @param seed    master seed
+     * @param threads number of worker threads
+     * @return fraction of the T realizations that percolate
+     */
+    public static double percolationProbability(final int N, final double p, final int T,
+                                                final long seed, int threads)
+    {
+        validate(N, T, threads);
+        if (!(p >= 0.0 && p <= 1.0))
+        {
+            throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        }
+
+        final int passes = (int) (((long) T + 63) / 64);
+        int workers = Math.min(threads, passes);
+        ExecutorService pool = newPool(workers);
+        try
+        {
+            if (pool == null)
+            {
+                return runPasses(N, p, T, seed, 0, passes) / (double) T;
+            }
+
+            // Worker w takes every workers-th pass starting at w
+            List<Future<Long>> futures = new ArrayList<Future<Long>>(workers);
+            for (int w = 0; w < workers; w++)
+            {
+                final int first = w;
+                final int step  = workers;
+                futures.add(pool.submit(new Callable<Long>()
+                {
+                    @Override
+                    public Long call()
+                    {
+                        long count = 0;
+                        for (int k = first; k < passes; k += step)
+                        {
+                            count += runPasses(N, p, T, seed, k, k + 1);
+                        }
+                        return count;
+                    }
+                }));
+            }
+
+            long percolating = 0;
+            for (Future<Long> future : futures)
+            {
+                percolating += future.get();
+            }
+            return percolating / (double) T;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for trials", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            if (pool != null) pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs bit-sliced passes [from, to) of 64 realizations each
+     *
+     * @return number of the first T realizations that percolate
+     */
+    private static long runPasses(int N, double p, int T, long seed, int from, int to)
+    {
+        BitSlicedPercolation grids = new BitSlicedPercolation(N);
+        long count = 0;
+        for (int k = from; k < to; k++)
+        {
+            long mask = grids.run(p, SplitMix64.stream(seed, k));
+
+            // The last pass may hold more realizations than requested
+            int lanes = (int) Math.min(64, T - 64L * k);
+            if (lanes < 64) mask &= (1L << lanes) - 1;
+            count += Long.bitCount(mask);
+        }
+        return count;
+    }
+
+    static void validate(int N, int T, int threads)
     {
         if (N <= 0 || T <= 0)
         {
             throw new IllegalArgumentException("N="+N+" T="+T);
         }
+        if (threads <= 0)
+        {
+            throw new IllegalArgumentException("threads="+threads);
+        }
+    }
+
+    static void validate(int N, int T, int threads, EngineKind engine)
+    {
+        validate(N, T, threads);
+        if (engine == null)
+        {
+            throw new NullPointerException("engine");
+        }
+    }
+
+    /**
+     * Runs exactly T trials and reduces the per-block partial sums in block order
+     */
+    private static RunningStats runFixed(int N, int T, long seed, int threads, EngineKind engine)
+    {
+        validate(N, T, threads, engine);
+
+        int blocks = blocks(T);
+        ExecutorService pool = newPool(Math.min(threads, blocks));
+        ThreadLocal<TrialArena> arenas = arenas(engine, N);
+        try
+        {
+            RunningStats total = new RunningStats();
+            for (RunningStats partial : runBlocks(pool, arenas, T, seed, 0, blocks))
+            {
+                total.merge(partial);
+            }
+            return total;
+        }
+        finally
+        {
+            if (pool != null) pool.shutdownNow();
+            arenas.remove();
+        }
+    }
+
+    /**
+     * Runs the blocks after the ones in the checkpoint and saves a
+     * checkpoint whenever a block finishes after the interval has passed,
+     * and after the last one. Workers are kept busy with blocks from a
+     * window ahead of the first unfinished one, as in PercolationSweep;
+     * finished blocks are merged as soon as every block before them has
+     * been, so a checkpoint always holds a prefix of the blocks in order.
+     */
+    private static RunningStats runCheckpointed(int N, int T, long seed, int threads, EngineKind engine,
+                                                File file, long intervalMillis) throws IOException
+    {
+        validate(N, T, threads, engine);
+
+        int blocks = blocks(T);
+        RunningStats total = new RunningStats();
+        int merged = 0;
+        if (file.exists())
+        {
+            StatsCheckpoint saved = StatsCheckpoint.read(file);
+            if (!saved.matches(N, T, seed, engine) || saved.completedBlocks() > blocks)
+            {
+                throw new IllegalArgumentException(file + " holds another run: " + saved);
+            }
+            total  = saved.stats();
+            merged = saved.completedBlocks();
+        }
+        // Blocks may run this far ahead of the first unmerged one, which
+        // bounds the finished blocks held back by a slow one
+        int workers = Math.min(threads, blocks - merged);
+        int window  = 4 * workers;
+
+        ExecutorService pool = newPool(workers);
+        CompletionService<FinishedBlock> finished =
+                pool == null ? null : new ExecutorCompletionService<FinishedBlock>(pool);
+        ThreadLocal<TrialArena> arenas = arenas(engine, N);
+        Map<Integer, RunningStats> pending = new HashMap<Integer, RunningStats>();
+        try
+        {
+            long saved = System.nanoTime();
+            int next = merged;
+            int inFlight = 0;
+            while (merged < blocks)
+            {
+                FinishedBlock block;
+                if (pool == null)
+                {
+                    block = new FinishedBlock(next, runBlock(arenas.get(), seed, next * BLOCK_SIZE,
+                                                             blockEnd(next, T)));
+                    next++;
+                }
+                else
+                {
+                    while (inFlight < workers * 2 && next < blocks && next - merged < window)
+                    {
+                        submit(finished, arenas, T, seed, next++);
+                        inFlight++;
+                    }
+                    block = finished.take().get();
+                    inFlight--;
+                }
+
+                pending.put(block.block, block.stats);
+                while (pending.containsKey(merged))
+                {
+                    total.merge(pending.remove(merged));
+                    merged++;
+                }
+
+                if (merged == blocks || System.nanoTime() - saved >= intervalMillis * 1000000L)
+                {
+                    new StatsCheckpoint(N, T, seed, engine, merged, total).write(file);
+                    saved = System.nanoTime();
+                }
+            }
+            return total;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for trials", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            if (pool != null) pool.shutdownNow();
+            arenas.remove();
+        }
+    }
 
-        results = new double[T];
-        int row = 0; // randomly generated row in the grid
-        int col = 0; // randomly generated column in the grid
-        int openSiteCounter = 0;
+    /**
+     * Partial statistics of one block, tagged with the block number
+     */
+    private static final class FinishedBlock
+    {
+        final int block;
+        final RunningStats stats;
 
-        // Repeat simulation T times
-        for (int i = 0; i < T; i++)
+        FinishedBlock(int block, RunningStats stats)
         {
-            openSiteCounter = 0;
-            Percolation percolation = new Percolation(N);
+            this.block = block;
+            this.stats = stats;
+        }
+    }
 
-            // Repeat opening sites randomly until system percolates
-            do {
-                // Generate randomly next site
-                row = StdRandom.uniform(1, N + 1);
-                col = StdRandom.uniform(1, N + 1);
+    private static void submit(CompletionService<FinishedBlock> finished, final ThreadLocal<TrialArena> arenas,
+                               final int T, final long seed, final int block)
+    {
+        finished.submit(new Callable<FinishedBlock>()
+        {
+            @Override
+            public FinishedBlock call()
+            {
+                return new FinishedBlock(block, runBlock(arenas.get(), seed, block * BLOCK_SIZE,
+                                                         blockEnd(block, T)));
+            }
+        });
+    }
 
-                // Open site if not already opened
-                if (!percolation.isOpen(row, col))
+    /**
+     * Runs batches of blocks until the stop rule holds after some block
+     */
+    private static RunningStats runAdaptive(int N, double target, boolean relative, int maxTrials,
+                                            long seed, int threads, EngineKind engine)
+    {
+        validate(N, maxTrials, threads, engine);
+        if (!(target > 0.0))
+        {
+            throw new IllegalArgumentException("target precision must be > 0: " + target);
+        }
+
+        int blocks = blocks(maxTrials);
+        int batch  = Math.min(threads, blocks);
+        ExecutorService pool = newPool(batch);
+        ThreadLocal<TrialArena> arenas = arenas(engine, N);
+        try
+        {
+            RunningStats total = new RunningStats();
+            for (int first = 0; first < blocks; first += batch)
+            {
+                int last = Math.min(blocks, first + batch);
+                for (RunningStats partial : runBlocks(pool, arenas, maxTrials, seed, first, last))
                 {
-                    percolation.open(row, col);
-                    ++openSiteCounter;
+                    total.merge(partial);
+                    double goal = relative ? target * Math.abs(total.mean()) : target;
+                    if (total.count() >= MIN_TRIALS && halfWidth(total) <= goal)
+                    {
+                        return total;
+                    }
                 }
+            }
+            return total;
+        }
+        finally
+        {
+            if (pool != null) pool.shutdownNow();
+            arenas.remove();
+        }
+    }
+
+    /**
+     * Converts a command-line budget of 1 or more, parsed as a double so
+     * that forms like 1e4 work too, to a number of trials
+     *
+     * @return the budget as an int
+     * @throws IllegalArgumentException if it is not a whole number that fits an int
+     */
+    static int trialCount(double budget)
+    {
+        if (budget != Math.rint(budget) || budget < 1.0 || budget > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("number of trials must be a whole number >= 1: " + budget);
+        }
+        return (int) budget;
+    }
+
+    /**
+     * @return half-width of the 95% confidence interval of the mean
+     */
+    static double halfWidth(RunningStats stats)
+    {
+        return 1.96 * stats.stddev() / Math.sqrt(stats.count());
+    }
+
+    /**
+     * @return number of blocks needed for T trials
+     */
+    static int blocks(int T)
+    {
+        return (int) (((long) T + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * @return first trial past block b when there are T trials
+     */
+    static int blockEnd(int b, int T)
+    {
+        return (int) Math.min(T, (long) (b + 1) * BLOCK_SIZE);
+    }
+
+    /**
+     * @return one lazily created TrialArena per thread that runs trials
+     */
+    private static ThreadLocal<TrialArena> arenas(final EngineKind engine, final int N)
+    {
+        return new ThreadLocal<TrialArena>()
+        {
+            @Override
+            protected TrialArena initialValue()
+            {
+                return new TrialArena(engine, N);
+            }
+        };
+    }
 
-            } while (!percolation.percolates());
+    /**
+     * @return a fixed pool with the given number of workers, or null to run inline
+     */
+    private static ExecutorService newPool(int threads)
+    {
+        return threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
 
-            // Compute threshold and save the result for the iteration
-            results[i] = openSiteCounter / (double) (N * N);
+    /**
+     * Runs blocks [firstBlock, lastBlock) of the first T trials, on the pool
+     * if there is one, and returns their partial statistics in block order
+     */
+    private static RunningStats[] runBlocks(ExecutorService pool, final ThreadLocal<TrialArena> arenas,
+                                            final int T, final long seed,
+                                            int firstBlock, int lastBlock)
+    {
+        RunningStats[] partials = new RunningStats[lastBlock - firstBlock];
+
+        if (pool == null)
+        {
+            for (int b = firstBlock; b < lastBlock; b++)
+            {
+                partials[b - firstBlock] = runBlock(arenas.get(), seed, b * BLOCK_SIZE, blockEnd(b, T));
+            }
+            return partials;
         }
 
-        // Compute mean threshold, standard dev. and 95% confidence boundaries.
-        mean            = StdStats.mean(results);
-        stddev          = StdStats.stddev(results);
-        double delta    = 1.96 * stddev / Math.sqrt(T);
-        confidenceLow   = mean - delta;
-        confidenceHigh  = mean + delta;
+        List<Future<RunningStats>> futures = new ArrayList<Future<RunningStats>>(partials.length);
+        try
+        {
+            for (int b = firstBlock; b < lastBlock; b++)
+            {
+                final int from = b * BLOCK_SIZE;
+                final int to   = blockEnd(b, T);
+                futures.add(pool.submit(new Callable<RunningStats>()
+                {
+                    @Override
+                    public RunningStats call()
+                    {
+                        return runBlock(arenas.get(), seed, from, to);
+                    }
+                }));
+            }
+
+            for (int b = 0; b < partials.length; b++)
+            {
+                partials[b] = futures.get(b).get();
+            }
+            return partials;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for trials", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs trials [from, to) on the given arena and returns their partial
+     * statistics
+     */
+    static RunningStats runBlock(TrialArena arena, long seed, int from, int to)
+    {
+        RunningStats stats = new RunningStats();
+        arena.rewind();
+        for (int t = from; t < to; t++)
+        {
+            stats.add(arena.run(seed, t));
+        }
+        return stats;
+    }
+
+    /**
+     * Draws a 64-bit master seed from StdRandom
+     */
+    private static long randomSeed()
+    {
+        long high = StdRandom.uniform(Integer.MAX_VALUE);
+        long low  = StdRandom.uniform(Integer.MAX_VALUE);
+        return (high << 32) ^ low;
+    }
+
+    /**
+     * @return number of experiments that were run
+     */
+    public long trials()
+    {
+        return trials;
     }
 
     /**
@@ -136,20 +712,55 @@ public class PercolationStats
      *
      * @param args
      */
-    public static void main(String[] args)
+    public static void main(String[] args) throws IOException
     {
         // TODO implement
-        if (args.length != 2)
+        if (args.length < 2 || args.length > 6)
         {
-            throw new IllegalArgumentException("Provide 2 arguments: main(T,N)=>"
-                    + "(T=num iterations, N=num elements)");
+            throw new IllegalArgumentException("Provide 2 to 6 arguments: main(N,T[,seed[,threads[,engine[,checkpoint]]]])=>"
+                    + "(N=num elements, T=num iterations, seed=master seed, threads=worker threads, "
+                    + "engine=one of " + java.util.Arrays.toString(EngineKind.values()) + ", "
+                    + "checkpoint=file to save progress to and resume from)");
         }
 
         int N = Integer.parseInt(args[0]);
-        int T = Integer.parseInt(args[1]);
         Stopwatch sw = new Stopwatch();
 
-        PercolationStats percStats = new PercolationStats(N, T);
+        // A T below 1 (e.g. 0.0005 or 5e-4) is a target confidence half-width
+        double budget    = Double.parseDouble(args[1]);
+        boolean adaptive = budget < 1.0;
+
+        PercolationStats percStats;
+        if (args.length == 2 && !adaptive)
+        {
+            percStats = new PercolationStats(N, trialCount(budget));
+        }
+        else
+        {
+            long seed   = args.length >= 3 ? Long.parseLong(args[2]) : randomSeed();
+            int threads = args.length >= 4 ? Integer.parseInt(args[3])
+                                           : Runtime.getRuntime().availableProcessors();
+            EngineKind engine = args.length >= 5 ? EngineKind.valueOf(args[4])
+                                                 : EngineKind.TWO_UNION_FIND;
+            if (args.length == 6)
+            {
+                if (adaptive)
+                {
+                    throw new IllegalArgumentException("checkpoints need a fixed number of trials T");
+                }
+                percStats = resumable(N, trialCount(budget), seed, threads, engine,
+                                      new File(args[5]), CHECKPOINT_MILLIS);
+            }
+            else if (adaptive)
+            {
+                percStats = untilHalfWidth(N, budget, Integer.MAX_VALUE,
+                                           seed, threads, engine);
+            }
+            else
+            {
+                percStats = new PercolationStats(N, trialCount(budget), seed, threads, engine);
+            }
+        }
 
         // Print the results
 //        System.out.format("elapsed time            = %f", sw.elapsedTime());
@@ -164,6 +775,7 @@ public class PercolationStats
 
 
         System.out.println("elapsed time            = " + sw.elapsedTime());
+        System.out.println("trials                  = " + percStats.trials());
         System.out.println("mean                    = " + percStats.mean());
         System.out.println("stddev                  = " + percStats.stddev());
         System.out.println("95% confidence interval = " + percStats.confidenceLo() + ", "
@@ -0,0 +1,474 @@
+/**
+ *
+ * Compilation: javac PercolationSweep.java
+ * Execution: java PercolationSweep 1000 42 8 SINGLE_HALVING_UNION_FIND 64 128 256 512
+ *            java PercolationSweep 0.0005 42 8 TORUS 64 128 256 512
+ *            java PercolationSweep 600s 42 8 TWO_UNION_FIND 64 128 256 512 1024
+ *
+ * Finite-size scaling sweep: PercolationStats for a list of grid sizes in
+ * one JVM, on one shared worker pool, with the budget given as a number of
+ * trials per size, a relative confidence half-width per size (a fraction),
+ * or a wall-clock time for the whole sweep (a number of seconds with an
+ * "s" suffix).
+ *
+ * Work is handed out in the PercolationStats blocks, largest grid first, so
+ * the long blocks start early and the short ones fill the gaps at the end.
+ * For a trial or accuracy budget every size gets exactly the statistics
+ * PercolationStats would compute for it with the same seed. For a time
+ * budget, blocks go to the size whose confidence interval is currently
+ * widest, and each size reports the blocks finished by the deadline.
+ *
+ * One CSV line is printed per size as soon as that size is finished.
+ * After the sweep, the thresholds are fitted to the finite-size scaling
+ * form
+ *
+ *     p_c(N) = p_c + a * N^(-1/nu),   nu = 4/3,
+ *
+ * by least squares weighted with the inverse variance of each mean, and
+ * the extrapolated p_c is printed as CSV comment lines.
+ *
+ */
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class PercolationSweep
+{
+    /** Correlation length exponent of two-dimensional percolation */
+    public static final double NU = 4.0 / 3.0;
+
+    private static final int FIXED    = 0;
+    private static final int ACCURACY = 1;
+    private static final int TIMED    = 2;
+
+    private final int[] sizes;
+    private final EngineKind engine;
+    private final long seed;
+    private final int threads;
+
+    /**
+     * Progress of one grid size
+     */
+    private static final class Size
+    {
+        final int index;                // position in the sizes given by the caller
+        final int N;
+        final int trials;               // trial budget, or the cap on trials
+        final int blocks;
+        final RunningStats total = new RunningStats();
+        final Map<Integer, RunningStats> pending = new HashMap<Integer, RunningStats>();
+        int next;                       // next block to submit
+        int merged;                     // blocks merged into total, in block order
+        int inFlight;
+        long started;
+        PercolationStats result;
+
+        Size(int index, int N, int trials)
+        {
+            this.index  = index;
+            this.N      = N;
+            this.trials = trials;
+            this.blocks = PercolationStats.blocks(trials);
+        }
+    }
+
+    /**
+     * A finished block
+     */
+    private static final class Block
+    {
+        final Size size;
+        final int block;
+        final RunningStats stats;
+
+        Block(Size size, int block, RunningStats stats)
+        {
+            this.size  = size;
+            this.block = block;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * @param sizes   grid sizes to sweep, each > 0
+     * @param engine  engine to run the trials with
+     * @param seed    master seed, shared by all sizes
+     * @param threads number of worker threads
+     */
+    public PercolationSweep(int[] sizes, EngineKind engine, long seed, int threads)
+    {
+        if (sizes.length == 0) throw new IllegalArgumentException("no grid sizes");
+        for (int N : sizes)
+        {
+            PercolationStats.validate(N, 1, threads, engine);
+        }
+
+        this.sizes   = sizes.clone();
+        this.engine  = engine;
+        this.seed    = seed;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs T trials for every size
+     *
+     * @param T   trials per size
+     * @param csv where to print a CSV line per finished size, or null
+     * @return statistics per size, in the order of the sizes
+     */
+    public PercolationStats[] runTrials(int T, PrintStream csv)
+    {
+        if (T <= 0) throw new IllegalArgumentException("T=" + T);
+
+        return run(FIXED, T, 0.0, 0L, csv);
+    }
+
+    /**
+     * Runs every size until the 95% confidence half-width is at most
+     * relativeError times the mean, like PercolationStats.untilRelativeError
+     *
+     * @param relativeError target half-width as a fraction of the mean
+     * @param maxTrials     cap on the trials per size
+     * @param csv           where to print a CSV line per finished size, or null
+     * @return statistics per size, in the order of the sizes
+     */
+    public PercolationStats[] runUntilRelativeError(double relativeError, int maxTrials, PrintStream csv)
+    {
+        if (!(relativeError > 0.0))
+        {
+            throw new IllegalArgumentException("target precision must be > 0: " + relativeError);
+        }
+        if (maxTrials <= 0) throw new IllegalArgumentException("maxTrials=" + maxTrials);
+
+        return run(ACCURACY, maxTrials, relativeError, 0L, csv);
+    }
+
+    /**
+     * Runs blocks of trials until the time is up, each one for the size
+     * with the widest confidence interval at that moment. Every size gets
+     * at least one block, even past the deadline.
+     *
+     * @param millis time budget in milliseconds
+     * @param csv    where to print a CSV line per size, or null
+     * @return statistics per size, in the order of the sizes
+     */
+    public PercolationStats[] runFor(long millis, PrintStream csv)
+    {
+        if (millis < 0) throw new IllegalArgumentException("millis=" + millis);
+
+        return run(TIMED, Integer.MAX_VALUE, 0.0, System.nanoTime() + millis * 1000000L, csv);
+    }
+
+    private PercolationStats[] run(int mode, int trials, double target, long deadline, PrintStream csv)
+    {
+        // Largest grid first: its blocks cost the most
+        Size[] order = new Size[sizes.length];
+        for (int k = 0; k < sizes.length; k++)
+        {
+            order[k] = new Size(k, sizes[k], trials);
+        }
+        Arrays.sort(order, new Comparator<Size>()
+        {
+            @Override
+            public int compare(Size a, Size b)
+            {
+                return b.N != a.N ? Integer.compare(b.N, a.N) : Integer.compare(a.index, b.index);
+            }
+        });
+
+        if (csv != null)
+        {
+            csv.println("N,trials,mean,stddev,confidenceLow,confidenceHigh,seconds");
+            csv.flush();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Block> done = new ExecutorCompletionService<Block>(pool);
+        final ThreadLocal<TrialArena> arenas = new ThreadLocal<TrialArena>();
+        try
+        {
+            int inFlight = 0;
+            while (true)
+            {
+                while (inFlight < threads)
+                {
+                    Size size = pick(mode, order, deadline);
+                    if (size == null) break;
+
+                    if (size.next == 0) size.started = System.nanoTime();
+                    submit(done, arenas, size, size.next++);
+                    size.inFlight++;
+                    inFlight++;
+                }
+                if (inFlight == 0) break;
+
+                Block block = done.take().get();
+                inFlight--;
+                Size size = block.size;
+                size.inFlight--;
+                if (size.result != null) continue;     // past the stop rule
+
+                // Merge in block order, checking the stop rule after each block
+                size.pending.put(block.block, block.stats);
+                while (size.result == null && size.pending.containsKey(size.merged))
+                {
+                    size.total.merge(size.pending.remove(size.merged));
+                    size.merged++;
+                    if (size.merged == size.blocks || (mode == ACCURACY && accurate(size.total, target)))
+                    {
+                        finish(size, csv);
+                    }
+                }
+            }
+
+            PercolationStats[] results = new PercolationStats[sizes.length];
+            for (Size size : order)
+            {
+                if (size.result == null) finish(size, csv);
+                results[size.index] = size.result;
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for trials", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the size to run a block for next, or null to wait for one to finish
+     */
+    private Size pick(int mode, Size[] order, long deadline)
+    {
+        if (mode == TIMED)
+        {
+            // Every size gets a first block, largest first
+            for (Size size : order)
+            {
+                if (size.next == 0) return size;
+            }
+            if (System.nanoTime() - deadline >= 0) return null;
+
+            Size widest = null;
+            double widestHalfWidth = -1.0;
+            for (Size size : order)
+            {
+                if (size.next == size.blocks) continue;
+
+                double halfWidth;
+                if (size.total.count() < 2)
+                {
+                    // No spread known yet: one block at a time until there is
+                    if (size.inFlight > 0) continue;
+                    halfWidth = Double.POSITIVE_INFINITY;
+                }
+                else
+                {
+                    // Expected half-width once the blocks in flight are merged too
+                    long count = size.total.count() + (long) size.inFlight * PercolationStats.BLOCK_SIZE;
+                    halfWidth = 1.96 * size.total.stddev() / Math.sqrt(count);
+                }
+                if (halfWidth > widestHalfWidth)
+                {
+                    widest = size;
+                    widestHalfWidth = halfWidth;
+                }
+            }
+            return widest;
+        }
+
+        for (Size size : order)
+        {
+            if (size.result != null || size.next == size.blocks) continue;
+
+            // An accuracy run may stop at any block, so only look a few ahead
+            if (mode == ACCURACY && size.next - size.merged >= threads) continue;
+            return size;
+        }
+        return null;
+    }
+
+    private static boolean accurate(RunningStats total, double relativeError)
+    {
+        return total.count() >= PercolationStats.MIN_TRIALS
+                && PercolationStats.halfWidth(total) <= relativeError * Math.abs(total.mean());
+    }
+
+    private void submit(CompletionService<Block> done, final ThreadLocal<TrialArena> arenas,
+                        final Size size, final int block)
+    {
+        final int from = block * PercolationStats.BLOCK_SIZE;
+        final int to   = PercolationStats.blockEnd(block, size.trials);
+        done.submit(new Callable<Block>()
+        {
+            @Override
+            public Block call()
+            {
+                // One arena per worker, replaced when the worker moves to another size
+                TrialArena arena = arenas.get();
+                if (arena == null || arena.gridSize() != size.N)
+                {
+                    arenas.set(null);               // let the old arena go first
+                    arena = new TrialArena(engine, size.N);
+                    arenas.set(arena);
+                }
+                return new Block(size, block, PercolationStats.runBlock(arena, seed, from, to));
+            }
+        });
+    }
+
+    private static void finish(Size size, PrintStream csv)
+    {
+        size.result = new PercolationStats(size.total);
+        if (csv == null) return;
+
+        PercolationStats stats = size.result;
+        double seconds = (System.nanoTime() - size.started) / 1e9;
+        csv.println(size.N + "," + stats.trials() + "," + stats.mean() + "," + stats.stddev() + ","
+                    + stats.confidenceLo() + "," + stats.confidenceHi() + "," + seconds);
+        csv.flush();
+    }
+
+    /**
+     * Fits p(N) = p_c + a * N^(-1/nu) to the means, weighting each size by
+     * the inverse square of the standard error of its mean
+     *
+     * @param sizes  grid sizes, at least two different ones
+     * @param means  mean threshold per size
+     * @param errors standard error of each mean, > 0
+     * @return { p_c, standard error of p_c, a }
+     */
+    public static double[] fit(int[] sizes, double[] means, double[] errors)
+    {
+        if (sizes.length != means.length || sizes.length != errors.length)
+        {
+            throw new IllegalArgumentException("sizes, means and errors differ in length");
+        }
+
+        double s = 0.0, sx = 0.0, sxx = 0.0, sy = 0.0, sxy = 0.0;
+        for (int k = 0; k < sizes.length; k++)
+        {
+            if (!(errors[k] > 0.0)) throw new IllegalArgumentException("error must be > 0: " + errors[k]);
+
+            double w = 1.0 / (errors[k] * errors[k]);
+            double x = Math.pow(sizes[k], -1.0 / NU);
+            s   += w;
+            sx  += w * x;
+            sxx += w * x * x;
+            sy  += w * means[k];
+            sxy += w * x * means[k];
+        }
+
+        double det = s * sxx - sx * sx;
+        if (!(det > 0.0)) throw new IllegalArgumentException("need at least two different grid sizes");
+
+        double pc = (sxx * sy - sx * sxy) / det;
+        double a  = (s * sxy - sx * sy) / det;
+        return new double[] { pc, Math.sqrt(sxx / det), a };
+    }
+
+    /**
+     * @param sizes grid sizes
+     * @param stats their statistics, each with at least two trials
+     * @return fit(sizes, means, errors) from the statistics
+     */
+    public static double[] fit(int[] sizes, PercolationStats[] stats)
+    {
+        double[] means  = new double[stats.length];
+        double[] errors = new double[stats.length];
+        for (int k = 0; k < stats.length; k++)
+        {
+            means[k]  = stats[k].mean();
+            errors[k] = stats[k].stddev() / Math.sqrt(stats[k].trials());
+        }
+        return fit(sizes, means, errors);
+    }
+
+    /**
+     * Runs a sweep and prints the CSV lines followed by the extrapolated
+     * threshold.
+     *
+     * @param args budget (trials per size, relative half-width below 1
+     *             such as 0.001 or 1e-3, or seconds such as 600s), seed,
+     *             threads, engine and the grid sizes
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 5)
+        {
+            throw new IllegalArgumentException("Provide at least 5 arguments: main(budget,seed,threads,engine,N...)=>"
+                    + "(budget=trials per size, relative half-width (0.001) or seconds (600s), "
+                    + "engine=one of " + Arrays.toString(EngineKind.values()) + ")");
+        }
+
+        String budget  = args[0];
+        long seed      = Long.parseLong(args[1]);
+        int threads    = Integer.parseInt(args[2]);
+        EngineKind engine = EngineKind.valueOf(args[3]);
+        int[] sizes    = new int[args.length - 4];
+        for (int k = 0; k < sizes.length; k++)
+        {
+            sizes[k] = Integer.parseInt(args[k + 4]);
+        }
+
+        PercolationSweep sweep = new PercolationSweep(sizes, engine, seed, threads);
+        PercolationStats[] stats;
+        if (budget.endsWith("s"))
+        {
+            double seconds = Double.parseDouble(budget.substring(0, budget.length() - 1));
+            stats = sweep.runFor((long) (seconds * 1000), System.out);
+        }
+        else if (Double.parseDouble(budget) < 1.0)
+        {
+            stats = sweep.runUntilRelativeError(Double.parseDouble(budget), Integer.MAX_VALUE, System.out);
+        }
+        else
+        {
+            stats = sweep.runTrials(PercolationStats.trialCount(Double.parseDouble(budget)), System.out);
+        }
+
+        int smallest = sizes[0];
+        int largest  = sizes[0];
+        long fewest  = Long.MAX_VALUE;
+        for (int k = 0; k < sizes.length; k++)
+        {
+            smallest = Math.min(smallest, sizes[k]);
+            largest  = Math.max(largest, sizes[k]);
+            fewest   = Math.min(fewest, stats[k].trials());
+        }
+        if (largest > smallest && fewest < 2)
+        {
+            // A single trial has no standard deviation to weight the fit with
+            System.out.println("# no fit: every size needs at least 2 trials");
+        }
+        else if (largest > smallest)
+        {
+            double[] fit = fit(sizes, stats);
+            System.out.println("# p_c(N) = p_c + a * N^(-3/4)");
+            System.out.println("# p_c = " + fit[0] + " +- " + fit[1]);
+            System.out.println("# a = " + fit[2]);
+        }
+    }
+}
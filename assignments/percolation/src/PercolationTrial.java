@@ -0,0 +1,30 @@
+/**
+ *
+ * Compilation: javac PercolationTrial.java
+ * Execution: none (interface)
+ *
+ * One Monte Carlo trial of a percolation experiment, run again and again on
+ * the same storage: PercolationStats only needs the threshold estimate of
+ * each trial, whether the model opens sites in a random order
+ * (OrderedTrial) or grows a cluster by itself (InvasionPercolation).
+ * EngineKind.trial() creates the implementation for each kind.
+ *
+ */
+
+public interface PercolationTrial
+{
+    /**
+     * Runs one trial on an empty grid, reusing the storage of the trials
+     * run before
+     *
+     * @param random random stream of the trial
+     * @return threshold estimate of the trial
+     */
+    double run(SplitMix64 random);
+
+    /**
+     * Puts back any state a trial passes on to the next, so the trials that
+     * follow depend only on their streams, as on a newly created instance
+     */
+    void rewind();
+}
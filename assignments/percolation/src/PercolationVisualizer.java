@@ -1,7 +1,9 @@
 /****************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
- *  Dependencies: Percolation.java StdDraw.java In.java
+ *                java PercolationVisualizer N seed
+ *  Dependencies: Percolation.java PercolationCanvas.java SiteOrder.java
+ *                StdDraw.java In.java
  *
  *  This program takes the name of a file as a command-line argument.
  *  From that file, it
@@ -10,71 +12,86 @@
  *    - Creates an N-by-N grid of sites (intially all blocked)
  *    - Reads in a sequence of sites (row i, column j) to open.
  *
+ *  Given a grid size N and a seed instead, it opens the sites of an
+ *  N-by-N grid in the random order of a SiteOrder until it percolates.
+ *
  *  After each site is opened, it draws full sites in light blue,
  *  open sites (that aren't full) in white, and blocked sites in black,
- *  with with site (1, 1) in the upper left-hand corner.
+ *  with with site (1, 1) in the upper left-hand corner. Only the squares
+ *  that changed are repainted (see PercolationCanvas), at most
+ *  PercolationCanvas.FRAMES_PER_SECOND frames are shown per second, and
+ *  the delay between sites shrinks with N^2.
  *
  ****************************************************************************/
 
-import java.awt.Font;
-
 public class PercolationVisualizer {
 
-    // delay in miliseconds (controls animation speed)
+    // delay in miliseconds between two opened sites on a 10-by-10 grid
+    // (controls animation speed); Pacer shortens it by 100 / N^2 on an
+    // N-by-N grid, so every grid takes about as long as input10.txt did
     private static final int DELAY = 100;
 
-    // draw N-by-N percolation system
-    public static void draw(Percolation perc, int N) {
-        StdDraw.clear();
-        StdDraw.setPenColor(StdDraw.BLACK);
-        StdDraw.setXscale(0, N);
-        StdDraw.setYscale(0, N);
-        StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
-
-        // draw N-by-N grid
-        int opened = 0;
-        for (int row = 1; row <= N; row++) {
-            for (int col = 1; col <= N; col++) {
-                if (perc.isFull(row, col)) {
-                    StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
-                    opened++;
-                }
-                else if (perc.isOpen(row, col)) {
-                    StdDraw.setPenColor(StdDraw.WHITE);
-                    opened++;
-                }
-                else
-                    StdDraw.setPenColor(StdDraw.BLACK);
-                StdDraw.filledSquare(col - 0.5, N - row + 0.5, 0.45);
-            }
+    public static void main(String[] args) {
+        if (args.length == 2) {
+            animateRandom(Integer.parseInt(args[0]), Long.parseLong(args[1]));
+            return;
         }
 
-        // write status text
-        StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        StdDraw.setPenColor(StdDraw.BLACK);
-        StdDraw.text(.25*N, -N*.025, opened + " open sites");
-        if (perc.percolates()) StdDraw.text(.75*N, -N*.025, "percolates");
-        else                   StdDraw.text(.75*N, -N*.025, "does not percolate");
-
-    }
-
-    public static void main(String[] args) {
         In in = new In(args[0]);      // input file
         int N = in.readInt();         // N-by-N percolation system
 
-        // turn on animation mode
-        StdDraw.show(0);
-
-        // repeatedly read in sites to open and draw resulting system
+        // repeatedly read in sites to open and draw the changes
         Percolation perc = new Percolation(N);
-        draw(perc, N);
-        StdDraw.show(DELAY);
+        PercolationCanvas canvas = new PercolationCanvas(perc, N);
+        Pacer pacer = new Pacer(N);
         while (!in.isEmpty()) {
             int i = in.readInt();
             int j = in.readInt();
-            perc.open(i, j);
-            draw(perc, N);
-            StdDraw.show(DELAY);
+            canvas.open(i, j);
+            canvas.update();
+            pacer.step();
+        }
+        canvas.show();
+    }
+
+    // open sites in random order until the system percolates
+    private static void animateRandom(int N, long seed) {
+        SiteOrder order = new SiteOrder(N, new SplitMix64(seed));
+
+        Percolation perc = new Percolation(N);
+        PercolationCanvas canvas = new PercolationCanvas(perc, N);
+        Pacer pacer = new Pacer(N);
+        while (!perc.percolates()) {
+            int site = order.next();
+            canvas.open(order.row(site), order.col(site));
+            canvas.update();
+            pacer.step();
+        }
+        canvas.show();
+    }
+
+    // spaces opened sites DELAY ms apart at N = 10, and proportionally
+    // closer on larger grids so that a whole grid takes about 100 * DELAY ms
+    private static class Pacer {
+        private final double nanosPerSite;
+        private final long start = System.nanoTime();
+        private long sites;
+
+        Pacer(int N) {
+            nanosPerSite = DELAY * 1e6 * 100 / ((double) N * N);
+        }
+
+        void step() {
+            sites++;
+            long wait = start + (long) (sites * nanosPerSite) - System.nanoTime();
+            if (wait >= 1000000) {
+                try {
+                    Thread.sleep(wait / 1000000);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
         }
     }
 }
@@ -0,0 +1,121 @@
+/**
+ *
+ * Compilation: javac RunningStats.java
+ * Execution: none (library class)
+ *
+ * Streaming sample mean and variance. Values are added one at a time with
+ * Welford's update and partial results computed on different threads are
+ * combined with Chan et al.'s pairwise merge, so no array of results has to
+ * be kept around.
+ *
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public final class RunningStats
+{
+    private long   count;   // Number of values seen
+    private double mean;    // Running mean
+    private double m2;      // Sum of squared deviations from the mean
+
+    /**
+     * Adds a single value
+     *
+     * @param x value to add
+     */
+    public void add(double x)
+    {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2   += delta * (x - mean);
+    }
+
+    /**
+     * Folds another partial result into this one
+     *
+     * @param other partial statistics to merge
+     */
+    public void merge(RunningStats other)
+    {
+        if (other.count == 0) return;
+        if (count == 0)
+        {
+            count = other.count;
+            mean  = other.mean;
+            m2    = other.m2;
+            return;
+        }
+
+        long   n     = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2   += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+    }
+
+    /**
+     * @return number of values added so far
+     */
+    public long count()
+    {
+        return count;
+    }
+
+    /**
+     * @return sample mean, NaN if empty
+     */
+    public double mean()
+    {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return sample variance (divided by count - 1), NaN if fewer than 2 values
+     */
+    public double var()
+    {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * @return sample standard deviation, NaN if fewer than 2 values
+     */
+    public double stddev()
+    {
+        return Math.sqrt(var());
+    }
+
+    /**
+     * Writes the exact state, so that read() restores a copy that goes on
+     * to produce bit-for-bit the same results
+     *
+     * @param out where to write 24 bytes
+     * @throws IOException on write errors
+     */
+    public void write(DataOutput out) throws IOException
+    {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+    }
+
+    /**
+     * Reads a state written by write()
+     *
+     * @param in where to read from
+     * @return the restored statistics
+     * @throws IOException on read errors or an invalid state
+     */
+    public static RunningStats read(DataInput in) throws IOException
+    {
+        RunningStats stats = new RunningStats();
+        stats.count = in.readLong();
+        stats.mean  = in.readDouble();
+        stats.m2    = in.readDouble();
+        if (stats.count < 0) throw new IOException("negative count: " + stats.count);
+        return stats;
+    }
+}
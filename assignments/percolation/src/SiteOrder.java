@@ -0,0 +1,186 @@
+/**
+ *
+ * Compilation: javac SiteOrder.java
+ * Execution: java SiteOrder 4 42
+ *
+ * Random opening order for the N^2 sites of an N x N grid, produced lazily
+ * as a forward Fisher-Yates (Durstenfeld) shuffle that stops wherever the
+ * caller does: next() swaps a uniformly chosen site from the not yet
+ * returned tail of the array into position count() and returns it. Every
+ * call costs a single random number and never returns a site twice, so a
+ * trial that stops at the percolation threshold never pays for retries on
+ * already open sites.
+ *
+ * Sites are numbered 0 .. N^2 - 1 in row-major order; row() and col()
+ * convert them to the 1-based indices used by Percolation. The internal
+ * array is always a permutation of the sites, so a new order can be started
+ * with reset() in O(1) time without reinitialising it.
+ *
+ */
+
+public class SiteOrder
+{
+    private final int N;
+    private final int[] sites;      // sites[0 .. next) is the order drawn so far
+    private int next;
+    private SplitMix64 random;
+
+    /**
+     * Creates an opening order for an N-by-N grid
+     *
+     * @param N      grid size
+     * @param random random stream driving the order
+     */
+    public SiteOrder(int N, SplitMix64 random)
+    {
+        this(N, sites(N), random);
+    }
+
+    private static int sites(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+        return N * N;
+    }
+
+    private SiteOrder(int N, int size, SplitMix64 random)
+    {
+        if (size <= 0) throw new IllegalArgumentException("size must be > 0: " + size);
+        if (random == null) throw new NullPointerException("random");
+
+        this.N      = N;
+        this.sites  = new int[size];
+        this.random = random;
+
+        for (int s = 0; s < sites.length; s++)
+        {
+            sites[s] = s;
+        }
+    }
+
+    /**
+     * Creates a random order of the numbers 0 .. size - 1, for things other
+     * than grid sites such as the bonds of BondPercolation; row() and col()
+     * treat them as the sites of a single row
+     *
+     * @param size   number of elements
+     * @param random random stream driving the order
+     * @return the new order
+     */
+    public static SiteOrder ofSize(int size, SplitMix64 random)
+    {
+        return new SiteOrder(size, size, random);
+    }
+
+    /**
+     * Starts a new random order drawn from the given stream
+     *
+     * @param random random stream driving the new order
+     */
+    public void reset(SplitMix64 random)
+    {
+        if (random == null) throw new NullPointerException("random");
+
+        this.random = random;
+        this.next   = 0;
+    }
+
+    /**
+     * Starts a new random order from the state of a newly created SiteOrder,
+     * with the internal permutation back in row-major order; unlike reset()
+     * this takes O(N^2) time, but the orders that follow no longer depend on
+     * the orders drawn before
+     *
+     * @param random random stream driving the new order
+     */
+    public void restart(SplitMix64 random)
+    {
+        for (int s = 0; s < sites.length; s++)
+        {
+            sites[s] = s;
+        }
+        reset(random);
+    }
+
+    /**
+     * @return true if some site has not been returned yet
+     */
+    public boolean hasNext()
+    {
+        return next < sites.length;
+    }
+
+    /**
+     * Returns the next site of the order
+     *
+     * @return site number in 0 .. N^2 - 1
+     * @throws java.util.NoSuchElementException if every site has been returned
+     */
+    public int next()
+    {
+        if (next == sites.length) throw new java.util.NoSuchElementException("all sites returned");
+
+        int r = next + random.uniform(sites.length - next);
+        int site = sites[r];
+        sites[r] = sites[next];
+        sites[next++] = site;
+        return site;
+    }
+
+    /**
+     * @return number of sites returned since the last reset
+     */
+    public int count()
+    {
+        return next;
+    }
+
+    /**
+     * @return number of sites, N^2, or the size of an ofSize() order
+     */
+    public int size()
+    {
+        return sites.length;
+    }
+
+    /**
+     * @param site site number
+     * @return 1-based row of the site
+     */
+    public int row(int site)
+    {
+        return site / N + 1;
+    }
+
+    /**
+     * @param site site number
+     * @return 1-based column of the site
+     */
+    public int col(int site)
+    {
+        return site % N + 1;
+    }
+
+    /**
+     * Prints a random opening order for an N-by-N grid in the format of the
+     * data/input*.txt files read by PercolationVisualizer.
+     *
+     * @param args N and a seed
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 2)
+        {
+            throw new IllegalArgumentException("Provide 2 arguments: main(N,seed)");
+        }
+
+        int N = Integer.parseInt(args[0]);
+        SiteOrder order = new SiteOrder(N, new SplitMix64(Long.parseLong(args[1])));
+
+        System.out.println(N);
+        while (order.hasNext())
+        {
+            int site = order.next();
+            System.out.println(order.row(site) + " " + order.col(site));
+        }
+    }
+}
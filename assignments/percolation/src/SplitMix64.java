@@ -0,0 +1,166 @@
+/**
+ *
+ * Compilation: javac SplitMix64.java
+ * Execution: none (library class)
+ *
+ * Small, splittable pseudo-random generator (Steele, Lea & Flood's
+ * SplitMix64). Each generator is a single 64-bit counter, so independent
+ * streams can be derived from a master seed and a stream index without any
+ * shared state. PercolationStats gives every trial its own stream, which keeps
+ * results identical no matter how many threads run the trials.
+ *
+ */
+
+public final class SplitMix64
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Creates a generator starting at the given seed
+     *
+     * @param seed initial state
+     */
+    public SplitMix64(long seed)
+    {
+        this.state = seed;
+    }
+
+    /**
+     * Derives the stream with the given index from a master seed: the new
+     * generator starts at mix64(masterSeed + (index + 1) * GOLDEN_GAMMA),
+     * a hash of the pair, so streams for different indices start at
+     * unrelated points of the sequence. Any stream is computed in O(1),
+     * independently of the others.
+     *
+     * @param masterSeed seed shared by all streams of one experiment
+     * @param index      stream number (for example the trial number)
+     * @return a new generator for that stream
+     */
+    public static SplitMix64 stream(long masterSeed, long index)
+    {
+        return new SplitMix64(mix64(masterSeed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Restarts this generator at the start of the given stream, so a loop
+     * over many streams can reuse one generator instead of allocating one
+     * per stream
+     *
+     * @param masterSeed seed shared by all streams of one experiment
+     * @param index      stream number (for example the trial number)
+     */
+    public void restart(long masterSeed, long index)
+    {
+        this.state = mix64(masterSeed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return next 64 pseudo-random bits
+     */
+    public long nextLong()
+    {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /**
+     * Returns an integer uniformly in [0, N)
+     *
+     * @param N upper bound (exclusive)
+     * @return random integer between 0 and N - 1
+     */
+    public int uniform(int N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("N must be > 0: " + N);
+
+        // Lemire's multiply-shift with rejection of the biased low range
+        long m = (nextLong() >>> 32) * N;
+        long low = m & 0xffffffffL;
+        if (low < N)
+        {
+            long threshold = (0x100000000L - N) % N;
+            while (low < threshold)
+            {
+                m = (nextLong() >>> 32) * N;
+                low = m & 0xffffffffL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * Returns a long uniformly in [0, N)
+     *
+     * @param N upper bound (exclusive)
+     * @return random long between 0 and N - 1
+     */
+    public long uniform(long N)
+    {
+        if (N <= 0) throw new IllegalArgumentException("N must be > 0: " + N);
+
+        // Reject the top partial range so every residue is equally likely
+        long limit = Long.MAX_VALUE - (Long.MAX_VALUE % N);
+        long r;
+        do {
+            r = nextLong() >>> 1;
+        } while (r >= limit);
+        return r % N;
+    }
+
+    /**
+     * Returns an integer uniformly in [a, b)
+     *
+     * @param a lower bound (inclusive)
+     * @param b upper bound (exclusive)
+     * @return random integer between a and b - 1
+     */
+    public int uniform(int a, int b)
+    {
+        return a + uniform(b - a);
+    }
+
+    /**
+     * @return a real number uniformly in [0, 1)
+     */
+    public double uniform()
+    {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns 64 independent bits, each set with probability p. The bits of
+     * p's binary expansion (32 of them, so p is rounded down to a multiple
+     * of 2^-32) are folded from the least significant one up: a 1 ORs in a
+     * fresh random word, a 0 ANDs one in. That is one random word per bit
+     * of p instead of one random number per bit of the result.
+     *
+     * @param p probability of a set bit, in [0, 1]
+     * @return random mask
+     */
+    public long bernoulliMask(double p)
+    {
+        if (!(p >= 0.0 && p <= 1.0)) throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        if (p == 1.0) return -1L;
+
+        long bits = (long) (p * 0x1.0p32);
+        if (bits == 0) return 0L;
+
+        // Trailing zero bits would AND into an all-zero mask: skip them
+        long mask = 0L;
+        for (int k = Long.numberOfTrailingZeros(bits); k < 32; k++)
+        {
+            if (((bits >>> k) & 1) != 0) mask |= nextLong();
+            else                         mask &= nextLong();
+        }
+        return mask;
+    }
+
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
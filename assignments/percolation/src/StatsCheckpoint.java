@@ -0,0 +1,167 @@
+/**
+ *
+ * Compilation: javac StatsCheckpoint.java
+ * Execution: none (library class)
+ *
+ * Progress of a PercolationStats run, saved so that a killed run can be
+ * resumed. Trial t always draws from SplitMix64.stream(seed, t) and blocks
+ * are merged in block order, so the random stream positions of a run are
+ * fully described by the number of blocks merged so far. A checkpoint
+ * therefore only holds the run parameters, that block count and the exact
+ * merged RunningStats, 54 bytes plus the engine name:
+ *
+ *     int magic, int version, int N, int T, long seed, UTF engine,
+ *     int completed blocks, long count, double mean, double m2
+ *
+ * write() goes through a temporary file in the same directory that is
+ * synced and then renamed over the old checkpoint, so a crash at any
+ * moment leaves either the old or the new checkpoint, never a torn one.
+ *
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+public final class StatsCheckpoint
+{
+    private static final int MAGIC   = 0x50435350;  // "PCSP"
+    private static final int VERSION = 1;
+
+    private final int N;
+    private final int T;
+    private final long seed;
+    private final EngineKind engine;
+    private final int completedBlocks;
+    private final RunningStats stats;
+
+    /**
+     * @param N               grid size
+     * @param T               number of trials of the whole run
+     * @param seed            master seed
+     * @param engine          engine the trials run with
+     * @param completedBlocks number of blocks merged into stats, from block 0
+     * @param stats           merged statistics of those blocks
+     */
+    public StatsCheckpoint(int N, int T, long seed, EngineKind engine, int completedBlocks, RunningStats stats)
+    {
+        if (engine == null) throw new NullPointerException("engine");
+        if (stats == null) throw new NullPointerException("stats");
+        if (completedBlocks < 0) throw new IllegalArgumentException("completedBlocks=" + completedBlocks);
+
+        this.N               = N;
+        this.T               = T;
+        this.seed            = seed;
+        this.engine          = engine;
+        this.completedBlocks = completedBlocks;
+        this.stats           = stats;
+    }
+
+    /**
+     * Reads a checkpoint file
+     *
+     * @param file checkpoint written by write()
+     * @return the checkpoint
+     * @throws IOException on read errors or if the file is not a checkpoint
+     */
+    public static StatsCheckpoint read(File file) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try
+        {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a checkpoint");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException(file + ": unsupported version " + version);
+
+            int N       = in.readInt();
+            int T       = in.readInt();
+            long seed   = in.readLong();
+            EngineKind engine;
+            try
+            {
+                engine = EngineKind.valueOf(in.readUTF());
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException(file + ": unknown engine", e);
+            }
+            int blocks = in.readInt();
+            if (blocks < 0) throw new IOException(file + ": negative block count");
+
+            return new StatsCheckpoint(N, T, seed, engine, blocks, RunningStats.read(in));
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Replaces the file with this checkpoint, atomically
+     *
+     * @param file checkpoint file
+     * @throws IOException on write errors
+     */
+    public void write(File file) throws IOException
+    {
+        File tmp = new File(file.getPath() + ".tmp");
+        FileOutputStream stream = new FileOutputStream(tmp);
+        try
+        {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(N);
+            out.writeInt(T);
+            out.writeLong(seed);
+            out.writeUTF(engine.name());
+            out.writeInt(completedBlocks);
+            stats.write(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+        finally
+        {
+            stream.close();
+        }
+        Files.move(tmp.toPath(), file.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return true if the checkpoint belongs to a run with these parameters
+     */
+    public boolean matches(int N, int T, long seed, EngineKind engine)
+    {
+        return this.N == N && this.T == T && this.seed == seed && this.engine == engine;
+    }
+
+    /**
+     * @return number of blocks merged, counted from block 0
+     */
+    public int completedBlocks()
+    {
+        return completedBlocks;
+    }
+
+    /**
+     * @return merged statistics of the completed blocks
+     */
+    public RunningStats stats()
+    {
+        return stats;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "N=" + N + " T=" + T + " seed=" + seed + " engine=" + engine
+               + " blocks=" + completedBlocks + " trials=" + stats.count();
+    }
+}
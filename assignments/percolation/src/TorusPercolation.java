@@ -0,0 +1,321 @@
+/**
+ *
+ * Compilation: javac TorusPercolation.java
+ * Execution: java TorusPercolation 100
+ *
+ * Percolation with periodic boundaries. The grid always wraps left-right,
+ * which makes it a cylinder, and can also wrap top-bottom, which makes it
+ * a torus. Without hard side walls the finite-size corrections to the
+ * threshold are much smaller, so PercolationStats gets accurate estimates
+ * at smaller N.
+ *
+ * A cylinder percolates like Percolation does, when a cluster joins the
+ * top row to the bottom row. A torus has no top or bottom, so it
+ * percolates when some cluster wraps around vertically, that is, contains
+ * a closed path that goes once around the torus.
+ *
+ * Wrapping is found with a displacement-tracking union-find (Newman and
+ * Ziff). Every site stores the unwrapped (x, y) offset from itself to its
+ * parent, so find() also returns the offset from a site to its root. When
+ * two neighbours turn out to be in the same cluster already, the two paths
+ * to their common root must differ by exactly the step between them.
+ * Otherwise the cluster has just closed a loop around the grid, and the
+ * mismatch tells which way it wraps.
+ *
+ */
+
+public class TorusPercolation implements PercolationEngine
+{
+    private static final byte OPEN   = 1;
+    private static final byte TOP    = 2;
+    private static final byte BOTTOM = 4;
+    private static final byte WRAP_X = 8;
+    private static final byte WRAP_Y = 16;
+
+    private final int N;
+    private final boolean wrapVertically;
+    private final byte[] state;     // OPEN per site, the other flags valid at roots
+    private final int[] parent;
+    private final int[] dx;         // unwrapped offset from a site to its parent
+    private final int[] dy;
+    private final byte[] rank;
+    private boolean percolates;
+    private boolean wrapsHorizontally;
+
+    // Offset from the last site passed to find() to its root
+    private int findX;
+    private int findY;
+
+    /**
+     * Creates an N-by-N cylinder or torus, with all sites blocked
+     *
+     * @param N
+     * @param wrapVertically true to wrap top-bottom as well as left-right
+     */
+    public TorusPercolation(int N, boolean wrapVertically)
+    {
+        if (N <= 0) throw new IllegalArgumentException("gridSize (N) must be > 0");
+
+        this.N              = N;
+        this.wrapVertically = wrapVertically;
+        this.state          = new byte[N * N];
+        this.parent         = new int[N * N];
+        this.dx             = new int[N * N];
+        this.dy             = new int[N * N];
+        this.rank           = new byte[N * N];
+
+        for (int s = 0; s < parent.length; s++)
+        {
+            parent[s] = s;
+        }
+    }
+
+    private void validateIndices(int i, int j)
+    {
+        if (i <= 0 || i > N)
+        {
+            throw new IndexOutOfBoundsException("row index i out of bounds");
+        }
+        if (j <= 0 || j > N)
+        {
+            throw new IndexOutOfBoundsException("column index j out of bounds");
+        }
+    }
+
+    /**
+     * Open site (row i, column j) if it is not already
+     *
+     * @param i
+     * @param j
+     */
+    @Override
+    public void open(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        if (state[site] != 0) return;
+
+        byte flags = OPEN;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        state[site] = flags;
+
+        int left  = j > 1 ? site - 1 : site + N - 1;
+        int right = j < N ? site + 1 : site - N + 1;
+        if (state[left] != 0)  connect(site, left, -1, 0);
+        if (state[right] != 0) connect(site, right, 1, 0);
+
+        if (i > 1 && state[site - N] != 0) connect(site, site - N, 0, -1);
+        if (i < N && state[site + N] != 0) connect(site, site + N, 0, 1);
+        if (wrapVertically)
+        {
+            if (i == 1 && state[site + N * (N - 1)] != 0) connect(site, site + N * (N - 1), 0, -1);
+            if (i == N && state[site - N * (N - 1)] != 0) connect(site, site - N * (N - 1), 0, 1);
+        }
+
+        byte root = state[find(site)];
+        if (wrapVertically ? (root & WRAP_Y) != 0 : (root & (TOP | BOTTOM)) == (TOP | BOTTOM))
+        {
+            percolates = true;
+        }
+    }
+
+    /**
+     * Joins open site p to its open neighbour q, which lies (stepX, stepY)
+     * away from p in unwrapped coordinates
+     */
+    private void connect(int p, int q, int stepX, int stepY)
+    {
+        int rootP = find(p);
+        int offPX = findX;
+        int offPY = findY;
+        int rootQ = find(q);
+
+        // Offset from rootQ to rootP going through the new bond p - q
+        int linkX = offPX - stepX - findX;
+        int linkY = offPY - stepY - findY;
+
+        if (rootP == rootQ)
+        {
+            // The two paths to the root must agree unless the cluster wraps
+            byte wraps = 0;
+            if (linkX != 0) wraps |= WRAP_X;
+            if (linkY != 0) wraps |= WRAP_Y;
+            state[rootP] |= wraps;
+            if (linkX != 0) wrapsHorizontally = true;
+            return;
+        }
+
+        byte merged = (byte) (state[rootP] | state[rootQ]);
+        if (rank[rootP] < rank[rootQ])
+        {
+            parent[rootP] = rootQ;
+            dx[rootP]     = -linkX;
+            dy[rootP]     = -linkY;
+            state[rootQ]  = merged;
+        }
+        else
+        {
+            if (rank[rootP] == rank[rootQ]) rank[rootP]++;
+            parent[rootQ] = rootP;
+            dx[rootQ]     = linkX;
+            dy[rootQ]     = linkY;
+            state[rootP]  = merged;
+        }
+    }
+
+    /**
+     * Finds the root of p, leaving the offset from p to the root in findX
+     * and findY, and points every site on the way directly at the root
+     */
+    private int find(int p)
+    {
+        int root = p;
+        int x = 0;
+        int y = 0;
+        while (parent[root] != root)
+        {
+            x += dx[root];
+            y += dy[root];
+            root = parent[root];
+        }
+        findX = x;
+        findY = y;
+
+        // Path compression: each site's offset becomes its offset to the root
+        while (parent[p] != root && p != root)
+        {
+            int up = parent[p];
+            int restX = x - dx[p];
+            int restY = y - dy[p];
+            parent[p] = root;
+            dx[p]     = x;
+            dy[p]     = y;
+            x = restX;
+            y = restY;
+            p = up;
+        }
+        return root;
+    }
+
+    /**
+     * Is site (row i, column j) open?
+     *
+     * @param i
+     * @param j
+     * @return true if the site site at location i,j is open
+     */
+    @Override
+    public boolean isOpen(int i, int j)
+    {
+        validateIndices(i, j);
+
+        return state[xyTo1D(i, j)] != 0;
+    }
+
+    /**
+     * Is site (row i, column j) full? On a cylinder a site is full when it
+     * is connected to the top row; a torus has no top row, so there a site
+     * is full when its cluster wraps vertically
+     *
+     * @param i
+     * @param j
+     * @return true if the site at location i,j is full
+     */
+    @Override
+    public boolean isFull(int i, int j)
+    {
+        validateIndices(i, j);
+
+        int site = xyTo1D(i, j);
+        return state[site] != 0 && (state[find(site)] & (wrapVertically ? WRAP_Y : TOP)) != 0;
+    }
+
+    /**
+     *
+     * @return true if the system percolates: a cluster spans top to bottom
+     *         on a cylinder, or wraps vertically on a torus
+     */
+    @Override
+    public boolean percolates()
+    {
+        return percolates;
+    }
+
+    /**
+     * @return true if some cluster wraps around left-right
+     */
+    public boolean wrapsHorizontally()
+    {
+        return wrapsHorizontally;
+    }
+
+    /**
+     * @return true if the grid wraps top-bottom as well as left-right
+     */
+    public boolean wrapsVertically()
+    {
+        return wrapVertically;
+    }
+
+    /**
+     * Blocks every site again, reusing the arrays, so that one instance can
+     * run many trials
+     */
+    public void reset()
+    {
+        for (int s = 0; s < parent.length; s++)
+        {
+            parent[s] = s;
+        }
+        java.util.Arrays.fill(state, (byte) 0);
+        java.util.Arrays.fill(dx, 0);
+        java.util.Arrays.fill(dy, 0);
+        java.util.Arrays.fill(rank, (byte) 0);
+        percolates        = false;
+        wrapsHorizontally = false;
+    }
+
+    private int xyTo1D(int i, int j)
+    {
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Unit test.
+     *
+     * @param args number of elements (N) in NxN matrix to use in test simulation
+     *
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            throw new Exception("Provide N as the first argument!");
+        }
+
+        int N = Integer.parseInt(args[0]);
+        TorusPercolation torus = new TorusPercolation(N, true);
+        int midCol = N / 2 + 1;
+
+        for (int i = 1; i < N; i++)
+        {
+            torus.open(i, midCol);
+        }
+
+        if (torus.percolates())
+        {
+            throw new Exception("Test failed! Open column has not closed the loop yet!");
+        }
+
+        torus.open(N, midCol);
+        if (!torus.percolates() || !torus.isFull(1, midCol))
+        {
+            throw new Exception("Test failed! System should percolate!");
+        }
+
+        System.out.println("Test status: success!");
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *
+ * Compilation: javac TrialArena.java
+ * Execution: none (library class)
+ *
+ * Per-worker scratch state for PercolationStats trials: one
+ * PercolationTrial of the chosen kind (see EngineKind.trial()) and one
+ * random generator, both reset between trials instead of being allocated
+ * again. Every engine resets its arrays in place (the
+ * union-find ones through WeightedUnionFind or HalvingUnionFind), so after
+ * its first trial an arena allocates nothing; TrialArenaTest checks this
+ * for the default engines. That matters for small grids and many trials,
+ * where allocation and garbage collection would otherwise dominate. Not
+ * thread-safe; every worker thread uses its own arena.
+ *
+ */
+
+public final class TrialArena
+{
+    private final EngineKind engine;
+    private final int N;
+    private final PercolationTrial percolation;
+    private final SplitMix64 random;
+
+    /**
+     * @param engine engine to run the trials with
+     * @param N      grid size
+     */
+    public TrialArena(EngineKind engine, int N)
+    {
+        if (engine == null) throw new NullPointerException("engine");
+
+        this.engine      = engine;
+        this.N           = N;
+        this.percolation = engine.trial(N);
+        this.random      = new SplitMix64(0L);
+    }
+
+    /**
+     * @return engine the trials run with
+     */
+    public EngineKind engine()
+    {
+        return engine;
+    }
+
+    /**
+     * @return grid size
+     */
+    public int gridSize()
+    {
+        return N;
+    }
+
+    /**
+     * Puts the state a trial passes on to the next, such as the opening
+     * order, back as it was in a new arena, so the trials that follow
+     * depend only on their seeds and on each other, not on what the arena
+     * ran before. PercolationStats rewinds at the start of every
+     * block, which keeps its results independent of the worker a block
+     * happens to run on.
+     */
+    public void rewind()
+    {
+        percolation.rewind();
+    }
+
+    /**
+     * Runs one trial with stream SplitMix64.stream(seed, trial), see
+     * PercolationTrial.run()
+     *
+     * @param seed  master seed of the experiment
+     * @param trial trial number
+     * @return threshold estimate of the trial
+     */
+    public double run(long seed, long trial)
+    {
+        random.restart(seed, trial);
+        return percolation.run(random);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ *
+ * Compilation: javac UnionFind.java
+ * Execution: none (interface)
+ *
+ * Union-find over the integers 0 .. n - 1, as used by the percolation
+ * engines. WeightedUnionFind is algs4's weighted quick-union and
+ * HalvingUnionFind is the tuned in-project version; UnionFindKind picks one.
+ * AlgsUnionFind wraps algs4's WeightedQuickUnionUF itself, as a reference.
+ *
+ */
+
+public interface UnionFind
+{
+    /**
+     * @param p element
+     * @return root of the component containing p
+     */
+    int find(int p);
+
+    /**
+     * Merges the components of p and q
+     *
+     * @param p element
+     * @param q element
+     */
+    void union(int p, int q);
+
+    /**
+     * Merges two different roots, as returned by find()
+     *
+     * @param rootP root of one component
+     * @param rootQ root of another component
+     * @return root of the merged component
+     */
+    int link(int rootP, int rootQ);
+
+    /**
+     * @param p element
+     * @param q element
+     * @return true if p and q are in the same component
+     */
+    boolean connected(int p, int q);
+
+    /**
+     * @return number of components
+     */
+    int count();
+
+    /**
+     * Puts every element back into its own component, reusing the storage
+     */
+    void reset();
+}
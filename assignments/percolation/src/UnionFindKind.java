@@ -0,0 +1,47 @@
+/**
+ *
+ * Compilation: javac UnionFindKind.java
+ * Execution: none (enum)
+ *
+ * The UnionFind implementations the percolation engines can be built on.
+ *
+ */
+
+public enum UnionFindKind
+{
+    /** algs4 WeightedQuickUnionUF, which allocates anew on every reset */
+    ALGS4
+    {
+        @Override
+        public UnionFind create(int n)
+        {
+            return new AlgsUnionFind(n);
+        }
+    },
+
+    /** WeightedUnionFind: algs4's weighted quick-union, reset in place */
+    WEIGHTED
+    {
+        @Override
+        public UnionFind create(int n)
+        {
+            return new WeightedUnionFind(n);
+        }
+    },
+
+    /** HalvingUnionFind: union by byte rank with path halving */
+    HALVING
+    {
+        @Override
+        public UnionFind create(int n)
+        {
+            return new HalvingUnionFind(n);
+        }
+    };
+
+    /**
+     * @param n number of elements
+     * @return a new union-find with n singleton components
+     */
+    public abstract UnionFind create(int n);
+}
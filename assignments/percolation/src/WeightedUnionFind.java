@@ -0,0 +1,87 @@
+/**
+ *
+ * Compilation: javac WeightedUnionFind.java
+ * Execution: none (library class)
+ *
+ * Weighted quick-union exactly as algs4's WeightedQuickUnionUF does it:
+ * union by size, the root of p's component staying the root when the sizes
+ * are equal, and no path compression, so it builds the same trees. Unlike
+ * WeightedQuickUnionUF it can be reset in place, so an engine reused across
+ * trials keeps its parent and size arrays instead of allocating new ones.
+ *
+ */
+
+public final class WeightedUnionFind implements UnionFind
+{
+    private final int[] parent;
+    private final int[] size;
+    private int count;
+
+    /**
+     * @param n number of elements
+     */
+    public WeightedUnionFind(int n)
+    {
+        if (n < 0) throw new IllegalArgumentException("n must be >= 0: " + n);
+
+        this.parent = new int[n];
+        this.size   = new int[n];
+        reset();
+    }
+
+    @Override
+    public int find(int p)
+    {
+        while (parent[p] != p)
+        {
+            p = parent[p];
+        }
+        return p;
+    }
+
+    @Override
+    public void union(int p, int q)
+    {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP != rootQ) link(rootP, rootQ);
+    }
+
+    @Override
+    public int link(int rootP, int rootQ)
+    {
+        count--;
+        if (size[rootP] < size[rootQ])
+        {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+            return rootQ;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        return rootP;
+    }
+
+    @Override
+    public boolean connected(int p, int q)
+    {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int count()
+    {
+        return count;
+    }
+
+    @Override
+    public void reset()
+    {
+        for (int i = 0; i < parent.length; i++)
+        {
+            parent[i] = i;
+        }
+        java.util.Arrays.fill(size, 1);
+        count = parent.length;
+    }
+}
@@ -0,0 +1,46 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+
+/**
+ * Runs the Percolation test cases against BitboardPercolation
+ */
+public class BitboardPercolationTest extends PercolationTest
+{
+    @Override
+    protected PercolationEngine create(int N)
+    {
+        return new BitboardPercolation(N);
+    }
+
+    @Test
+    public void wideRandomGridsAgreeWithPercolation()
+    {
+        SplitMix64 random = new SplitMix64(8L);
+        for (int trial = 0; trial < 20; trial++)
+        {
+            int N = 60 + random.uniform(140);
+            BitboardPercolation grid = BitboardPercolation.random(N, 0.55 + 0.1 * random.uniform(), random);
+
+            boolean[][] cells = new boolean[N][N];
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    cells[i - 1][j - 1] = grid.isOpen(i, j);
+                }
+            }
+            Percolation perc = Percolation.fromGrid(cells);
+
+            assertEquals(perc.percolates(), grid.percolates());
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    assertEquals(perc.isFull(i, j), grid.isFull(i, j));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for BondPercolation
+ */
+public class BondPercolationTest
+{
+    @Test
+    public void verticalBondsPercolate()
+    {
+        int N = 4;
+        BondPercolation bonds = new BondPercolation(N);
+        for (int i = 1; i < N; i++)
+        {
+            assertFalse(bonds.percolates());
+            bonds.openVertical(i, 2);
+        }
+        assertTrue(bonds.percolates());
+        assertTrue(bonds.isFull(N, 2));
+        assertFalse(bonds.isFull(N, 1));
+        assertEquals(N - 1, bonds.numberOfOpenBonds());
+    }
+
+    @Test
+    public void horizontalBondsDoNotPercolate()
+    {
+        int N = 3;
+        BondPercolation bonds = new BondPercolation(N);
+        for (int i = 1; i <= N; i++)
+        {
+            for (int j = 1; j < N; j++)
+            {
+                bonds.openHorizontal(i, j);
+                assertTrue(bonds.isHorizontalOpen(i, j));
+            }
+        }
+        assertFalse(bonds.percolates());
+        assertTrue(bonds.isFull(1, 3));
+        assertFalse(bonds.isFull(2, 3));
+    }
+
+    /**
+     * Top-to-bottom connection found by a depth-first search over open bonds
+     */
+    private static boolean spans(BondPercolation bonds, int N)
+    {
+        boolean[] seen = new boolean[N * N];
+        int[] stack = new int[N * N];
+        int top = 0;
+        for (int c = 0; c < N; c++)
+        {
+            seen[c] = true;
+            stack[top++] = c;
+        }
+        while (top > 0)
+        {
+            int site = stack[--top];
+            int r = site / N;
+            int c = site % N;
+            if (r == N - 1) return true;
+
+            int[] next = {
+                c < N - 1 && bonds.isHorizontalOpen(r + 1, c + 1) ? site + 1 : -1,
+                c > 0 && bonds.isHorizontalOpen(r + 1, c) ? site - 1 : -1,
+                r < N - 1 && bonds.isVerticalOpen(r + 1, c + 1) ? site + N : -1,
+                r > 0 && bonds.isVerticalOpen(r, c + 1) ? site - N : -1 };
+            for (int n : next)
+            {
+                if (n >= 0 && !seen[n])
+                {
+                    seen[n] = true;
+                    stack[top++] = n;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void agreesWithSearchOverRandomBondOrders()
+    {
+        for (int trial = 0; trial < 20; trial++)
+        {
+            int N = 2 + trial % 7;
+            BondPercolation bonds = new BondPercolation(N);
+            SiteOrder order = SiteOrder.ofSize(bonds.bonds(), SplitMix64.stream(13L, trial));
+            while (order.hasNext())
+            {
+                bonds.openBond(order.next());
+                assertEquals(spans(bonds, N), bonds.percolates());
+            }
+            assertEquals(bonds.bonds(), bonds.numberOfOpenBonds());
+        }
+    }
+
+    @Test
+    public void resetClosesEveryBond()
+    {
+        BondPercolation bonds = new BondPercolation(2);
+        bonds.openVertical(1, 1);
+        assertTrue(bonds.percolates());
+
+        bonds.reset();
+        assertFalse(bonds.percolates());
+        assertFalse(bonds.isVerticalOpen(1, 1));
+        assertTrue(bonds.isFull(1, 2));
+        assertEquals(0, bonds.numberOfOpenBonds());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void lastColumnHasNoHorizontalBond()
+    {
+        new BondPercolation(3).openHorizontal(1, 3);
+    }
+
+    @Test
+    public void statsFindTheBondThreshold()
+    {
+        PercolationStats stats = new PercolationStats(32, 400, 8L, 2, EngineKind.BOND);
+        assertEquals(0.5, stats.mean(), 0.01);
+    }
+}
@@ -0,0 +1,33 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Runs the Percolation test cases against CompactPercolation
+ */
+public class CompactPercolationTest extends PercolationTest
+{
+    @Override
+    protected PercolationEngine create(int N)
+    {
+        return new CompactPercolation(N);
+    }
+
+    @Test
+    public void bottomFlagDoesNotLeakIntoFullness()
+    {
+        PercolationEngine perc = create(4);
+
+        perc.open(4, 1);
+        perc.open(4, 2);
+        perc.open(3, 2);
+        assertFalse(perc.isFull(4, 1));
+
+        perc.open(2, 2);
+        perc.open(1, 2);
+        assertTrue(perc.isFull(4, 1));
+        assertTrue(perc.percolates());
+    }
+}
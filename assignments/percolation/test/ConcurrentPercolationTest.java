@@ -0,0 +1,240 @@
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Runs the Percolation test cases against ConcurrentPercolation and
+ * compares it with Percolation when many threads open sites at once.
+ */
+public class ConcurrentPercolationTest extends PercolationTest
+{
+    private static final int THREADS = 8;
+
+    @Override
+    protected PercolationEngine create(int N)
+    {
+        return new ConcurrentPercolation(N);
+    }
+
+    /**
+     * Lets every thread open the given sites, each thread in its own random
+     * order, all starting at the same time
+     */
+    private static void openConcurrently(final ConcurrentPercolation perc, final int N, final int[] sites)
+            throws InterruptedException
+    {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int seed = t;
+            workers[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    int[] mine = sites.clone();
+                    SplitMix64 random = new SplitMix64(seed);
+                    for (int k = mine.length - 1; k > 0; k--)
+                    {
+                        int r = random.uniform(k + 1);
+                        int tmp = mine[k];
+                        mine[k] = mine[r];
+                        mine[r] = tmp;
+                    }
+                    try
+                    {
+                        start.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                    for (int site : mine)
+                    {
+                        perc.open(site / N + 1, site % N + 1);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+    }
+
+    private static void assertSameState(Percolation expected, ConcurrentPercolation actual, int N)
+    {
+        assertEquals(expected.percolates(), actual.percolates());
+        assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+        for (int i = 1; i <= N; i++)
+        {
+            for (int j = 1; j <= N; j++)
+            {
+                assertEquals(expected.isOpen(i, j), actual.isOpen(i, j));
+                assertEquals(expected.isFull(i, j), actual.isFull(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void heavyContentionMatchesSequentialPercolation() throws InterruptedException
+    {
+        for (int round = 0; round < 20; round++)
+        {
+            int N = 40;
+            SiteOrder order = new SiteOrder(N, SplitMix64.stream(99L, round));
+            int[] sites = new int[(int) ((0.55 + 0.01 * (round % 10)) * N * N)];
+            Percolation expected = new Percolation(N);
+            for (int k = 0; k < sites.length; k++)
+            {
+                sites[k] = order.next();
+                expected.open(order.row(sites[k]), order.col(sites[k]));
+            }
+
+            // every thread opens every site: each open() races with 7 others
+            ConcurrentPercolation actual = new ConcurrentPercolation(N);
+            openConcurrently(actual, N, sites);
+
+            assertSameState(expected, actual, N);
+        }
+    }
+
+    @Test
+    public void disjointStripesMatchSequentialPercolation() throws InterruptedException
+    {
+        final int N = 64;
+        SplitMix64 random = new SplitMix64(17L);
+        final boolean[][] grid = new boolean[N][N];
+        for (int i = 0; i < N; i++)
+        {
+            for (int j = 0; j < N; j++)
+            {
+                grid[i][j] = random.uniform() < 0.6;
+            }
+        }
+
+        final ConcurrentPercolation actual = new ConcurrentPercolation(N);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int first = t * N / THREADS;
+            final int last  = (t + 1) * N / THREADS;
+            workers[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = first; i < last; i++)
+                    {
+                        for (int j = 0; j < N; j++)
+                        {
+                            if (grid[i][j]) actual.open(i + 1, j + 1);
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        assertSameState(Percolation.fromGrid(grid), actual, N);
+    }
+
+    /**
+     * Open sites as seen one isOpen() call at a time
+     */
+    private static boolean[][] openSites(ConcurrentPercolation perc, int N)
+    {
+        boolean[][] grid = new boolean[N][N];
+        for (int i = 0; i < N; i++)
+        {
+            for (int j = 0; j < N; j++)
+            {
+                grid[i][j] = perc.isOpen(i + 1, j + 1);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Queries isFull() and percolates() while the sites are being opened.
+     * Open sites only accumulate, so the sites seen open before a query are
+     * a subset of the grid the query answered for, and the sites seen open
+     * after it are a superset: a true answer must also hold for Percolation
+     * on the later grid, a false answer also on the earlier one. Answers
+     * must never go from true back to false.
+     */
+    @Test
+    public void queriesDuringOpensAreConsistentWithPercolation() throws InterruptedException
+    {
+        for (int round = 0; round < 10; round++)
+        {
+            final int N = 24;
+            SiteOrder order = new SiteOrder(N, SplitMix64.stream(123L, round));
+            final int[] sites = new int[(int) (0.65 * N * N)];
+            for (int k = 0; k < sites.length; k++)
+            {
+                sites[k] = order.next();
+            }
+
+            final ConcurrentPercolation actual = new ConcurrentPercolation(N);
+            final AtomicBoolean done = new AtomicBoolean();
+            final AssertionError[] failure = new AssertionError[1];
+            Thread checker = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    SplitMix64 random = new SplitMix64(7L);
+                    boolean[] wasFull = new boolean[N * N];
+                    boolean wasPercolating = false;
+                    try
+                    {
+                        while (!done.get())
+                        {
+                            int site = random.uniform(N * N);
+                            boolean[][] before = openSites(actual, N);
+                            boolean full       = actual.isFull(site / N + 1, site % N + 1);
+                            boolean percolates = actual.percolates();
+                            boolean[][] after  = openSites(actual, N);
+
+                            Percolation lower = Percolation.fromGrid(before);
+                            Percolation upper = Percolation.fromGrid(after);
+                            if (full) assertTrue(upper.isFull(site / N + 1, site % N + 1));
+                            else      assertFalse(lower.isFull(site / N + 1, site % N + 1));
+                            if (percolates) assertTrue(upper.percolates());
+                            else            assertFalse(lower.percolates());
+
+                            assertFalse(wasFull[site] && !full);
+                            assertFalse(wasPercolating && !percolates);
+                            wasFull[site]  |= full;
+                            wasPercolating |= percolates;
+                        }
+                    }
+                    catch (AssertionError e)
+                    {
+                        failure[0] = e;
+                    }
+                }
+            });
+            checker.start();
+            openConcurrently(actual, N, sites);
+            done.set(true);
+            checker.join();
+
+            if (failure[0] != null) throw failure[0];
+        }
+    }
+}
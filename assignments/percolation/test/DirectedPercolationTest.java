@@ -0,0 +1,118 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for DirectedPercolation
+ */
+public class DirectedPercolationTest
+{
+    /**
+     * Rebuilds the grid a run draws from the same stream, one row of words
+     * at a time (the first row low word first, later rows high word first),
+     * and follows it site by site
+     */
+    private static boolean slowRun(int width, double p, int height, SplitMix64 random)
+    {
+        int words = (width + 63) >>> 6;
+        boolean[] reach = new boolean[width];
+        for (int w = 0; w < words; w++)
+        {
+            long bits = random.bernoulliMask(p);
+            for (int b = 0; b < 64 && 64 * w + b < width; b++)
+            {
+                reach[64 * w + b] = (bits >>> b & 1L) != 0;
+            }
+        }
+
+        for (int row = 1; row < height; row++)
+        {
+            boolean alive = false;
+            for (boolean r : reach) alive |= r;
+            if (!alive) return false;
+
+            boolean[] open = new boolean[width];
+            for (int w = words - 1; w >= 0; w--)
+            {
+                long bits = random.bernoulliMask(p);
+                for (int b = 0; b < 64 && 64 * w + b < width; b++)
+                {
+                    open[64 * w + b] = (bits >>> b & 1L) != 0;
+                }
+            }
+            boolean[] next = new boolean[width];
+            for (int j = 0; j < width; j++)
+            {
+                next[j] = open[j] && (reach[j] || (j > 0 && reach[j - 1]));
+            }
+            reach = next;
+        }
+
+        boolean alive = false;
+        for (boolean r : reach) alive |= r;
+        return alive;
+    }
+
+    @Test
+    public void agreesWithSiteBySiteSimulation()
+    {
+        int[] widths = { 1, 5, 63, 64, 65, 130 };
+        for (int width : widths)
+        {
+            DirectedPercolation grid = new DirectedPercolation(width);
+            for (int run = 0; run < 40; run++)
+            {
+                double p = 0.6 + 0.01 * (run % 20);
+                boolean expected = slowRun(width, p, 50, SplitMix64.stream(width, run));
+                assertEquals(expected, grid.run(p, 50, SplitMix64.stream(width, run)));
+            }
+        }
+    }
+
+    @Test
+    public void extremeProbabilities()
+    {
+        DirectedPercolation grid = new DirectedPercolation(100);
+        assertTrue(grid.run(1.0, 1000L, new SplitMix64(1L)));
+        assertEquals(1000L, grid.depth());
+        assertEquals(100, grid.reachable());
+        assertTrue(grid.isReachable(100));
+
+        assertFalse(grid.run(0.0, new SplitMix64(1L)));
+        assertEquals(0L, grid.depth());
+    }
+
+    @Test
+    public void deadRunKeepsItsLastLiveRow()
+    {
+        DirectedPercolation grid = new DirectedPercolation(1);
+        int dead = 0;
+        for (int run = 0; run < 20; run++)
+        {
+            if (grid.run(0.5, 1000L, SplitMix64.stream(5L, run)) || grid.depth() == 0) continue;
+
+            dead++;
+            assertEquals(1, grid.reachable());
+            assertTrue(grid.isReachable(1));
+        }
+        assertTrue(dead > 0);
+    }
+
+    @Test
+    public void thresholdSeparatesLowAndHighProbabilities()
+    {
+        DirectedPercolation grid = new DirectedPercolation(512);
+        int low  = 0;
+        int high = 0;
+        for (int run = 0; run < 20; run++)
+        {
+            if (grid.run(0.65, SplitMix64.stream(3L, run))) low++;
+            if (grid.run(0.76, SplitMix64.stream(4L, run))) high++;
+        }
+        assertEquals(0, low);
+        assertEquals(20, high);
+    }
+}
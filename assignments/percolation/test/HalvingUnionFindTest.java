@@ -0,0 +1,63 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+
+/**
+ * Test cases for HalvingUnionFind
+ */
+public class HalvingUnionFindTest
+{
+    @Test
+    public void agreesWithAlgs4OnRandomOperations()
+    {
+        SplitMix64 random = new SplitMix64(3L);
+        UnionFind fast      = new HalvingUnionFind(200);
+        UnionFind reference = new AlgsUnionFind(200);
+
+        for (int k = 0; k < 2000; k++)
+        {
+            int p = random.uniform(200);
+            int q = random.uniform(200);
+            if (random.uniform(2) == 0)
+            {
+                fast.union(p, q);
+                reference.union(p, q);
+            }
+            else
+            {
+                assertEquals(reference.connected(p, q), fast.connected(p, q));
+            }
+            assertEquals(reference.count(), fast.count());
+        }
+    }
+
+    @Test
+    public void linkReturnsTheNewRoot()
+    {
+        UnionFind uf = new HalvingUnionFind(4);
+
+        int root = uf.link(uf.find(0), uf.find(1));
+        root = uf.link(root, uf.find(2));
+
+        assertEquals(root, uf.find(0));
+        assertEquals(root, uf.find(2));
+        assertEquals(2, uf.count());
+    }
+
+    @Test
+    public void resetRestoresSingletons()
+    {
+        UnionFind uf = new HalvingUnionFind(5);
+        uf.union(0, 1);
+        uf.union(1, 4);
+
+        uf.reset();
+
+        assertEquals(5, uf.count());
+        for (int p = 0; p < 5; p++)
+        {
+            assertEquals(p, uf.find(p));
+        }
+    }
+}
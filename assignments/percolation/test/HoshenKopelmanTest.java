@@ -0,0 +1,96 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for HoshenKopelman
+ */
+public class HoshenKopelmanTest
+{
+    private static HoshenKopelman check(String grid) throws IOException
+    {
+        return HoshenKopelman.readText(new ByteArrayInputStream(grid.getBytes("US-ASCII")));
+    }
+
+    @Test
+    public void snakeThatTurnsBackUpPercolates() throws IOException
+    {
+        HoshenKopelman checker = check("5\n"
+                + "10001\n"
+                + "10101\n"
+                + "10101\n"
+                + "11101\n"
+                + "00001\n");
+
+        assertTrue(checker.percolates());
+        assertEquals(2, checker.clusters());
+        assertEquals(8, checker.largestCluster());
+        assertEquals(13, checker.openSites());
+    }
+
+    @Test
+    public void clustersThatMergeLaterAreCountedOnce() throws IOException
+    {
+        HoshenKopelman checker = check("4\n"
+                + "1010\n"
+                + "1010\n"
+                + "1110\n"
+                + "0000\n");
+
+        assertFalse(checker.percolates());
+        assertEquals(1, checker.clusters());
+        assertEquals(7, checker.largestCluster());
+    }
+
+    @Test
+    public void agreesWithPercolationOnRandomGrids() throws IOException
+    {
+        SplitMix64 random = new SplitMix64(11L);
+        for (int trial = 0; trial < 200; trial++)
+        {
+            int N = 1 + random.uniform(12);
+            Percolation perc = new Percolation(N);
+            StringBuilder grid = new StringBuilder().append(N).append('\n');
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    boolean open = random.uniform() < 0.6;
+                    if (open) perc.open(i, j);
+                    grid.append(open ? '1' : '0');
+                }
+                grid.append('\n');
+            }
+
+            HoshenKopelman checker = check(grid.toString());
+            assertEquals(perc.percolates(), checker.percolates());
+            assertEquals(perc.numberOfOpenSites(), checker.openSites());
+        }
+    }
+
+    @Test
+    public void binaryRowsAreReadLowBitFirst() throws IOException
+    {
+        byte[] binary = { 0, 0, 0, 3, 0x5, 0x5, 0x1 };
+        HoshenKopelman checker = HoshenKopelman.readBinary(new ByteArrayInputStream(binary));
+
+        assertTrue(checker.percolates());
+        assertEquals(2, checker.clusters());
+        assertEquals(3, checker.largestCluster());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void incompleteGridHasNoAnswer()
+    {
+        HoshenKopelman checker = new HoshenKopelman(2);
+        checker.addRow(new boolean[] { true, true });
+
+        checker.percolates();
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for InvasionPercolation
+ */
+public class InvasionPercolationTest
+{
+    @Test
+    public void invadedSitesFormOneClusterFromTopToBottom()
+    {
+        int N = 20;
+        InvasionPercolation invasion = new InvasionPercolation(N);
+        for (int run = 0; run < 10; run++)
+        {
+            invasion.run(SplitMix64.stream(2L, run));
+            assertTrue(invasion.percolates());
+
+            int invaded = 0;
+            boolean bottom = false;
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    if (!invasion.isOpen(i, j)) continue;
+
+                    invaded++;
+                    if (i == N) bottom = true;
+                    boolean linked = i == 1
+                            || invasion.isOpen(i - 1, j)
+                            || (i < N && invasion.isOpen(i + 1, j))
+                            || (j > 1 && invasion.isOpen(i, j - 1))
+                            || (j < N && invasion.isOpen(i, j + 1));
+                    assertTrue(linked);
+                }
+            }
+            assertTrue(bottom);
+            assertEquals(invaded, invasion.numberOfInvadedSites());
+            assertTrue(invasion.numberOfSeenSites() > invaded);
+        }
+    }
+
+    @Test
+    public void reusedInstanceMatchesFreshOne()
+    {
+        InvasionPercolation reused = new InvasionPercolation(15);
+        for (int run = 0; run < 10; run++)
+        {
+            double expected = new InvasionPercolation(15).run(SplitMix64.stream(5L, run));
+            assertEquals(expected, reused.run(SplitMix64.stream(5L, run)));
+        }
+    }
+
+    @Test
+    public void stepwiseInvasionNeverLowersTheThreshold()
+    {
+        InvasionPercolation invasion = new InvasionPercolation(12);
+        invasion.start(new SplitMix64(9L));
+        double last = 0.0;
+        while (!invasion.percolates())
+        {
+            invasion.invade();
+            assertTrue(invasion.threshold() >= last);
+            last = invasion.threshold();
+        }
+        assertTrue(last > 0.0 && last < 1.0);
+    }
+
+    @Test
+    public void runsAsATrialNotAsASiteOpeningEngine()
+    {
+        assertFalse(PercolationEngine.class.isAssignableFrom(InvasionPercolation.class));
+
+        PercolationTrial trial = EngineKind.INVASION.trial(8);
+        assertTrue(trial instanceof InvasionPercolation);
+        double threshold = trial.run(new SplitMix64(4L));
+        assertTrue(threshold > 0.0 && threshold < 1.0);
+        assertTrue(((InvasionPercolation) trial).percolates());
+    }
+
+    @Test
+    public void statsEstimateTheSiteThreshold()
+    {
+        PercolationStats stats = new PercolationStats(64, 200, 4L, 2, EngineKind.INVASION);
+        assertEquals(0.5927, stats.mean(), 0.03);
+    }
+}
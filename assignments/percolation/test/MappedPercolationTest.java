@@ -0,0 +1,40 @@
+import org.junit.After;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Runs the Percolation test cases against MappedPercolation
+ */
+public class MappedPercolationTest extends PercolationTest
+{
+    // Every instance a test creates, closed afterwards to close and delete its files
+    private final List<MappedPercolation> created = new ArrayList<MappedPercolation>();
+
+    @Override
+    protected PercolationEngine create(int N)
+    {
+        try
+        {
+            MappedPercolation percolation = new MappedPercolation(N);
+            created.add(percolation);
+            return percolation;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @After
+    public void closeCreated() throws IOException
+    {
+        for (MappedPercolation percolation : created)
+        {
+            percolation.close();
+        }
+        created.clear();
+    }
+}
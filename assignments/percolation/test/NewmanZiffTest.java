@@ -0,0 +1,50 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for NewmanZiff
+ */
+public class NewmanZiffTest
+{
+    @Test
+    public void fullGridIsOneSpanningCluster()
+    {
+        NewmanZiff nz = new NewmanZiff(8);
+        nz.sweep(new SplitMix64(1L));
+        nz.sweep(new SplitMix64(2L));
+
+        assertEquals(0.0, nz.spanningProbability(0), 0.0);
+        assertEquals(1.0, nz.spanningProbability(64), 0.0);
+        assertEquals(64.0, nz.largestCluster(64), 0.0);
+        assertEquals(64.0, nz.meanClusterSize(64), 0.0);
+        assertEquals(1.0, nz.largestCluster(1), 0.0);
+    }
+
+    @Test
+    public void spanningProbabilityGrowsWithP()
+    {
+        NewmanZiff nz = new NewmanZiff(32);
+        for (int s = 0; s < 50; s++)
+        {
+            nz.sweep(SplitMix64.stream(7L, s));
+        }
+
+        double previous = -1.0;
+        for (double p = 0.0; p <= 1.0; p += 0.05)
+        {
+            double current = nz.spanningProbabilityAt(p);
+            assertTrue(current >= previous - 1e-12);
+            previous = current;
+        }
+        assertEquals(0.5, nz.spanningProbabilityAt(0.593), 0.15);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void queryBeforeSweepIsRejected()
+    {
+        new NewmanZiff(4).spanningProbabilityAt(0.5);
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for OpenSites
+ */
+public class OpenSitesTest
+{
+    @Test
+    public void openReportsOnlyNewSites()
+    {
+        OpenSites sites = new OpenSites(3);
+
+        assertTrue(sites.open(1, 2));
+        assertFalse(sites.open(1, 2));
+        assertTrue(sites.isOpen(1, 2));
+        assertFalse(sites.isOpen(2, 1));
+        assertEquals(1, sites.count());
+    }
+
+    @Test
+    public void rowsAreWordAligned()
+    {
+        OpenSites sites = new OpenSites(3, 70);
+
+        assertEquals(2, sites.wordsPerRow());
+
+        sites.open(0, 69);
+        sites.open(1, 0);
+        sites.open(1, 64);
+        sites.open(2, 63);
+
+        assertEquals(1, sites.countInRow(0));
+        assertEquals(2, sites.countInRow(1));
+        assertEquals(1, sites.countInRow(2));
+        assertEquals(1L << 5, sites.word(0, 1));
+        assertEquals(4, sites.count());
+    }
+
+    @Test
+    public void rowScanFindsOpenSitesAcrossWords()
+    {
+        OpenSites sites = new OpenSites(2, 200);
+
+        sites.open(1, 3);
+        sites.open(1, 130);
+
+        assertEquals(-1, sites.nextOpenInRow(0, 0));
+        assertEquals(3, sites.nextOpenInRow(1, 0));
+        assertEquals(3, sites.nextOpenInRow(1, 3));
+        assertEquals(130, sites.nextOpenInRow(1, 4));
+        assertEquals(-1, sites.nextOpenInRow(1, 131));
+    }
+
+    @Test
+    public void setWordDropsPaddingBits()
+    {
+        OpenSites sites = new OpenSites(1, 10);
+
+        sites.setWord(0, 0, -1L);
+
+        assertEquals(10, sites.count());
+        assertTrue(sites.isOpen(0, 9));
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+
+/**
+ * Test cases for the bulk constructors of Percolation, fromGrid() and
+ * fromSites()
+ */
+public class PercolationBulkTest
+{
+    @Test
+    public void bulkGridMatchesSiteBySiteOpening()
+    {
+        SplitMix64 random = new SplitMix64(5L);
+        for (int trial = 0; trial < 50; trial++)
+        {
+            int N = 1 + random.uniform(10);
+            boolean[][] grid = new boolean[N][N];
+            Percolation perc = new Percolation(N);
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    grid[i - 1][j - 1] = random.uniform() < 0.6;
+                    if (grid[i - 1][j - 1]) perc.open(i, j);
+                }
+            }
+
+            Percolation bulk = Percolation.fromGrid(grid);
+            assertEquals(perc.percolates(), bulk.percolates());
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    assertEquals(perc.isOpen(i, j), bulk.isOpen(i, j));
+                    assertEquals(perc.isFull(i, j), bulk.isFull(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sitesBitmapMatchesGrid()
+    {
+        SplitMix64 random = new SplitMix64(9L);
+        int[] sizes = { 1, 3, 63, 64, 65, 70 };
+        for (int N : sizes)
+        {
+            boolean[][] grid = new boolean[N][N];
+            OpenSites sites = new OpenSites(N);
+            for (int r = 0; r < N; r++)
+            {
+                for (int c = 0; c < N; c++)
+                {
+                    grid[r][c] = random.uniform() < 0.6;
+                    if (grid[r][c]) sites.open(r, c);
+                }
+            }
+
+            Percolation expected = Percolation.fromGrid(grid);
+            Percolation actual   = Percolation.fromSites(sites);
+            assertEquals(expected.percolates(), actual.percolates());
+            assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    assertEquals(expected.isOpen(i, j), actual.isOpen(i, j));
+                    assertEquals(expected.isFull(i, j), actual.isFull(i, j));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkGridMustBeSquare()
+    {
+        Percolation.fromGrid(new boolean[][] { { true, false }, { true } });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sitesBitmapMustBeSquare()
+    {
+        Percolation.fromSites(new OpenSites(2, 3));
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for the dirty-square repainting of PercolationCanvas, with
+ * the drawing replaced by a record of the squares painted
+ */
+public class PercolationCanvasTest
+{
+    private static final int BLOCKED = 0;
+    private static final int OPEN    = 1;
+    private static final int FULL    = 2;
+
+    /**
+     * Keeps the colour every square was last painted in, and counts paints
+     */
+    private static final class RecordingCanvas extends PercolationCanvas
+    {
+        private final int[][] squares;
+        private int paints;
+
+        RecordingCanvas(Percolation perc, int N)
+        {
+            super(perc, N);
+            squares = new int[N + 1][N + 1];
+        }
+
+        @Override
+        void drawBackground()
+        {
+        }
+
+        @Override
+        void paint(int i, int j, boolean full)
+        {
+            squares[i][j] = full ? FULL : OPEN;
+            paints++;
+        }
+
+        @Override
+        void drawStatus(int opened, boolean percolates)
+        {
+        }
+
+        int square(int i, int j)
+        {
+            return squares[i][j];
+        }
+    }
+
+    private static int expected(Percolation perc, int i, int j)
+    {
+        if (perc.isFull(i, j)) return FULL;
+        return perc.isOpen(i, j) ? OPEN : BLOCKED;
+    }
+
+    @Test
+    public void repaintedSquaresMatchAFullRedraw()
+    {
+        int N = 12;
+        Percolation perc = new Percolation(N);
+        RecordingCanvas canvas = new RecordingCanvas(perc, N);
+
+        SiteOrder order = new SiteOrder(N, new SplitMix64(11L));
+        while (order.hasNext())
+        {
+            int site = order.next();
+            canvas.open(order.row(site), order.col(site));
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    assertEquals(expected(perc, i, j), canvas.square(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everySquareIsPaintedAtMostTwice()
+    {
+        // once when opened, once more if it fills later
+        int N = 20;
+        Percolation perc = new Percolation(N);
+        RecordingCanvas canvas = new RecordingCanvas(perc, N);
+
+        SiteOrder order = new SiteOrder(N, new SplitMix64(12L));
+        while (order.hasNext())
+        {
+            int site = order.next();
+            canvas.open(order.row(site), order.col(site));
+        }
+        assertTrue(canvas.paints <= 2 * N * N);
+        assertEquals(N * N, perc.numberOfFullSites());
+    }
+
+    @Test
+    public void fillingAClusterRepaintsOnlyThatCluster()
+    {
+        Percolation perc = new Percolation(4);
+        RecordingCanvas canvas = new RecordingCanvas(perc, 4);
+        canvas.open(3, 1);
+        canvas.open(3, 2);
+        canvas.open(2, 4);
+        assertEquals(3, canvas.paints);
+
+        // (2, 1) joins (3, 1) and (3, 2) to the top: three squares turn full
+        canvas.open(1, 1);
+        canvas.open(2, 1);
+        assertEquals(3 + 1 + 3, canvas.paints);
+        assertEquals(OPEN, canvas.square(2, 4));
+        assertEquals(FULL, canvas.square(3, 2));
+
+        // opening an open site again paints nothing
+        canvas.open(3, 2);
+        assertEquals(7, canvas.paints);
+    }
+}
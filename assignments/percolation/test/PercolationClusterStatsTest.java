@@ -0,0 +1,97 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for the cluster statistics of Percolation
+ */
+public class PercolationClusterStatsTest
+{
+    /**
+     * Sizes of the clusters of open sites, found by flood fill
+     */
+    private static int[] clusterSizes(Percolation perc, int N)
+    {
+        boolean[] seen = new boolean[N * N];
+        int[] sizes = new int[N * N];
+        int clusters = 0;
+        int[] stack = new int[N * N];
+        for (int start = 0; start < N * N; start++)
+        {
+            if (seen[start] || !perc.isOpen(start / N + 1, start % N + 1)) continue;
+
+            int top = 0;
+            stack[top++] = start;
+            seen[start] = true;
+            while (top > 0)
+            {
+                int site = stack[--top];
+                sizes[clusters]++;
+                int r = site / N;
+                int c = site % N;
+                int[] neighbours = { r > 0 ? site - N : -1, r < N - 1 ? site + N : -1,
+                                     c > 0 ? site - 1 : -1, c < N - 1 ? site + 1 : -1 };
+                for (int next : neighbours)
+                {
+                    if (next >= 0 && !seen[next] && perc.isOpen(next / N + 1, next % N + 1))
+                    {
+                        seen[next] = true;
+                        stack[top++] = next;
+                    }
+                }
+            }
+            clusters++;
+        }
+        return java.util.Arrays.copyOf(sizes, clusters);
+    }
+
+    @Test
+    public void clusterStatsAgreeWithFloodFill()
+    {
+        int N = 10;
+        Percolation early = new Percolation(N);
+        Percolation late  = new Percolation(N);
+        early.enableClusterStats();
+
+        SiteOrder order = new SiteOrder(N, new SplitMix64(8L));
+        while (order.hasNext())
+        {
+            int site = order.next();
+            early.open(order.row(site), order.col(site));
+            late.open(order.row(site), order.col(site));
+            if (order.count() == N * N / 2) late.enableClusterStats();
+
+            int[] sizes = clusterSizes(early, N);
+            assertEquals(sizes.length, early.numberOfClusters());
+            int largest = 0;
+            int[] histogram = new int[N * N + 1];
+            for (int size : sizes)
+            {
+                largest = Math.max(largest, size);
+                histogram[size]++;
+            }
+            assertEquals(largest, early.largestCluster());
+            for (int size = 1; size <= N * N; size++)
+            {
+                assertEquals(histogram[size], early.numberOfClustersOfSize(size));
+            }
+            assertTrue(early.clusterSize(order.row(site), order.col(site)) > 0);
+
+            if (order.count() >= N * N / 2)
+            {
+                assertEquals(early.numberOfClusters(), late.numberOfClusters());
+                assertEquals(early.largestCluster(), late.largestCluster());
+            }
+        }
+        assertEquals(1, early.numberOfClusters());
+        assertEquals(N * N, early.clusterSize(1, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void clusterStatsMustBeEnabled()
+    {
+        new Percolation(3).largestCluster();
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for the fill tracking of Percolation
+ */
+public class PercolationFillTrackingTest
+{
+    @Test
+    public void fillTrackingAgreesWithUnionFind()
+    {
+        SplitMix64 random = new SplitMix64(6L);
+        int N = 12;
+        Percolation tracked = new Percolation(N);
+        Percolation plain   = new Percolation(N);
+        tracked.enableFillTracking();
+
+        SiteOrder order = new SiteOrder(N, random);
+        int lastStep = 0;
+        while (order.hasNext())
+        {
+            int site = order.next();
+            tracked.open(order.row(site), order.col(site));
+            plain.open(order.row(site), order.col(site));
+
+            int full = 0;
+            for (int i = 1; i <= N; i++)
+            {
+                for (int j = 1; j <= N; j++)
+                {
+                    assertEquals(plain.isFull(i, j), tracked.isFull(i, j));
+                    if (plain.isFull(i, j)) full++;
+                }
+            }
+            assertEquals(full, tracked.numberOfFullSites());
+            if (full > 0)
+            {
+                int newest = tracked.filledSite(full - 1);
+                int step   = tracked.fillStep(newest / N + 1, newest % N + 1);
+                assertTrue(step >= lastStep && step <= order.count());
+                lastStep = step;
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fillTrackingMustStartOnAnEmptyGrid()
+    {
+        Percolation perc = new Percolation(3);
+        perc.open(1, 1);
+
+        perc.enableFillTracking();
+    }
+}
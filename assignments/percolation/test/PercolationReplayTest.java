@@ -0,0 +1,98 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for PercolationReplay
+ */
+public class PercolationReplayTest
+{
+    private static PercolationReplay replay(String text) throws IOException
+    {
+        return PercolationReplay.replay(new ByteArrayInputStream(text.getBytes("US-ASCII")));
+    }
+
+    @Test
+    public void reportsThePercolatingStep() throws IOException
+    {
+        PercolationReplay replay = replay("3\n1 2\n1 2\n2 2\n3 1\n3 2\n1 1\n");
+        assertTrue(replay.percolates());
+        assertEquals(5, replay.step());
+        assertEquals(3, replay.row());
+        assertEquals(2, replay.col());
+        assertEquals(4, replay.openSites());
+        assertEquals(4 / 9.0, replay.openFraction(), 1e-12);
+    }
+
+    @Test
+    public void sequenceThatNeverPercolates() throws IOException
+    {
+        PercolationReplay replay = replay("2 1 1 1 2");
+        assertFalse(replay.percolates());
+        assertEquals(0, replay.step());
+        assertEquals(2, replay.stepsRead());
+        assertEquals(0.5, replay.openFraction());
+    }
+
+    @Test
+    public void agreesWithPercolationOnDataFiles() throws IOException
+    {
+        String[] files = { "data/input20.txt", "data/input10.txt", "data/input10-no.txt" };
+        for (String file : files)
+        {
+            PercolationReplay replay;
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                replay = PercolationReplay.replay(in);
+            }
+            finally
+            {
+                in.close();
+            }
+
+            Scanner scanner = new Scanner(new java.io.File(file));
+            int N = scanner.nextInt();
+            Percolation percolation = new Percolation(N);
+            long step = 0;
+            while (scanner.hasNextInt() && !percolation.percolates())
+            {
+                percolation.open(scanner.nextInt(), scanner.nextInt());
+                step++;
+            }
+            scanner.close();
+
+            assertEquals(percolation.percolates(), replay.percolates());
+            assertEquals(step, replay.stepsRead());
+            assertEquals(percolation.numberOfOpenSites(), replay.openSites());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedStepIsAnError() throws IOException
+    {
+        replay("3\n1 1\n2");
+    }
+
+    @Test(expected = IOException.class)
+    public void garbageIsAnError() throws IOException
+    {
+        replay("3\n1 x\n");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void siteOutsideTheGridIsAnError() throws IOException
+    {
+        replay("3\n4 1\n");
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static junit.framework.Assert.assertEquals;
+
+
+/**
+ * Test cases for PercolationSnapshot
+ */
+public class PercolationSnapshotTest
+{
+    private static final int FULL    = 0x67c6f3;
+    private static final int OPEN    = 0xffffff;
+    private static final int BLOCKED = 0x000000;
+
+    private static Percolation grid()
+    {
+        // 4 x 4: a full path down column 1, one open site at (4, 4)
+        Percolation perc = new Percolation(4);
+        perc.open(1, 1);
+        perc.open(2, 1);
+        perc.open(3, 1);
+        perc.open(4, 4);
+        return perc;
+    }
+
+    @Test
+    public void smallGridsAreNotUpsampled()
+    {
+        BufferedImage image = PercolationSnapshot.render(grid(), 4, 100, PercolationSnapshot.Aggregation.MAJORITY);
+
+        assertEquals(4, image.getWidth());
+        assertEquals(FULL, image.getRGB(0, 2) & 0xffffff);
+        assertEquals(OPEN, image.getRGB(3, 3) & 0xffffff);
+        assertEquals(BLOCKED, image.getRGB(3, 0) & 0xffffff);
+    }
+
+    @Test
+    public void blocksAreAggregated()
+    {
+        BufferedImage majority = PercolationSnapshot.render(grid(), 4, 2, PercolationSnapshot.Aggregation.MAJORITY);
+        BufferedImage anyFull  = PercolationSnapshot.render(grid(), 4, 2, PercolationSnapshot.Aggregation.ANY_FULL);
+
+        assertEquals(2, majority.getWidth());
+        assertEquals(FULL, majority.getRGB(0, 0) & 0xffffff);
+        assertEquals(BLOCKED, majority.getRGB(0, 1) & 0xffffff);
+        assertEquals(FULL, anyFull.getRGB(0, 1) & 0xffffff);
+        assertEquals(BLOCKED, anyFull.getRGB(1, 1) & 0xffffff);
+    }
+}
@@ -0,0 +1,229 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for PercolationStats
+ */
+public class PercolationStatsTest
+{
+    @Test
+    public void reusedArenaMatchesFreshArenas()
+    {
+        for (EngineKind engine : EngineKind.values())
+        {
+            TrialArena reused = new TrialArena(engine, 12);
+            for (int b = 0; b < 4; b++)
+            {
+                int from = b * 20;
+                RunningStats fresh = PercolationStats.runBlock(new TrialArena(engine, 12), 5L, from, from + 20);
+                RunningStats again = PercolationStats.runBlock(reused, 5L, from, from + 20);
+                assertEquals(fresh.mean(), again.mean());
+                assertEquals(fresh.var(), again.var());
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameResultsForAnyThreadCount()
+    {
+        PercolationStats single   = new PercolationStats(20, 300, 12345L, 1);
+        PercolationStats parallel = new PercolationStats(20, 300, 12345L, 4);
+
+        assertEquals(single.mean(), parallel.mean(), 0.0);
+        assertEquals(single.stddev(), parallel.stddev(), 0.0);
+        assertEquals(single.confidenceLo(), parallel.confidenceLo(), 0.0);
+        assertEquals(single.confidenceHi(), parallel.confidenceHi(), 0.0);
+    }
+
+    @Test
+    public void meanIsCloseToKnownThreshold()
+    {
+        PercolationStats stats = new PercolationStats(50, 200, 42L, 2);
+
+        assertEquals(0.593, stats.mean(), 0.02);
+        assertTrue(stats.confidenceLo() < stats.mean());
+        assertTrue(stats.confidenceHi() > stats.mean());
+    }
+
+    @Test
+    public void adaptiveRunStopsOnceIntervalIsTightEnough()
+    {
+        PercolationStats stats = PercolationStats.untilHalfWidth(20, 0.005, 100000, 3L, 3,
+                                                                 EngineKind.SINGLE_UNION_FIND);
+
+        assertTrue(stats.trials() >= 30);
+        assertTrue(stats.trials() < 100000);
+        assertTrue(stats.confidenceHi() - stats.mean() <= 0.005);
+    }
+
+    @Test
+    public void adaptiveRunDoesNotDependOnThreadCount()
+    {
+        PercolationStats single   = PercolationStats.untilRelativeError(10, 0.01, 100000, 9L, 1,
+                                                                        EngineKind.TWO_UNION_FIND);
+        PercolationStats parallel = PercolationStats.untilRelativeError(10, 0.01, 100000, 9L, 5,
+                                                                        EngineKind.TWO_UNION_FIND);
+
+        assertEquals(single.trials(), parallel.trials());
+        assertEquals(single.mean(), parallel.mean(), 0.0);
+    }
+
+    @Test
+    public void adaptiveRunStopsAtMaxTrials()
+    {
+        PercolationStats stats = PercolationStats.untilHalfWidth(10, 1e-9, 100, 3L, 2,
+                                                                 EngineKind.TWO_UNION_FIND);
+
+        assertEquals(100, stats.trials());
+    }
+
+    @Test
+    public void percolationProbabilityFollowsTheThreshold()
+    {
+        assertEquals(0.0, PercolationStats.percolationProbability(32, 0.3, 200, 1L, 2), 0.0);
+        assertEquals(1.0, PercolationStats.percolationProbability(32, 0.9, 200, 1L, 2), 0.0);
+
+        double nearThreshold = PercolationStats.percolationProbability(32, 0.593, 1000, 1L, 3);
+        assertTrue(nearThreshold > 0.3 && nearThreshold < 0.7);
+        assertEquals(nearThreshold, PercolationStats.percolationProbability(32, 0.593, 1000, 1L, 1), 0.0);
+    }
+
+    @Test
+    public void bitSlicedLanesAgreeWithPercolation()
+    {
+        BitSlicedPercolation grids = new BitSlicedPercolation(8);
+        long mask = grids.run(0.6, new SplitMix64(4L));
+
+        for (int lane = 0; lane < 64; lane++)
+        {
+            Percolation perc = new Percolation(8);
+            for (int i = 1; i <= 8; i++)
+            {
+                for (int j = 1; j <= 8; j++)
+                {
+                    if ((grids.openMask(i, j) >>> lane & 1) != 0) perc.open(i, j);
+                }
+            }
+            assertEquals(perc.percolates(), (mask >>> lane & 1) != 0);
+            for (int i = 1; i <= 8; i++)
+            {
+                for (int j = 1; j <= 8; j++)
+                {
+                    assertEquals(perc.isFull(i, j), (grids.fullMask(i, j) >>> lane & 1) != 0);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroThreadsIsRejected()
+    {
+        new PercolationStats(10, 10, 1L, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroTrialsIsRejected()
+    {
+        new PercolationStats(10, 0);
+    }
+
+    @Test
+    public void resumedRunMatchesUninterruptedRun() throws IOException
+    {
+        int N = 10;
+        int T = 1000;
+        PercolationStats expected = new PercolationStats(N, T, 31L, 3, EngineKind.SINGLE_UNION_FIND);
+
+        // A run killed after its first 5 blocks left this checkpoint behind
+        RunningStats partial = new RunningStats();
+        TrialArena arena = new TrialArena(EngineKind.SINGLE_UNION_FIND, N);
+        for (int b = 0; b < 5; b++)
+        {
+            partial.merge(PercolationStats.runBlock(arena, 31L, 64 * b, 64 * (b + 1)));
+        }
+        File file = File.createTempFile("percolation", ".checkpoint");
+        try
+        {
+            new StatsCheckpoint(N, T, 31L, EngineKind.SINGLE_UNION_FIND, 5, partial).write(file);
+
+            PercolationStats resumed = PercolationStats.resumable(N, T, 31L, 2, EngineKind.SINGLE_UNION_FIND,
+                                                                  file, 0L);
+            assertEquals(expected.trials(), resumed.trials());
+            assertEquals(expected.mean(), resumed.mean());
+            assertEquals(expected.stddev(), resumed.stddev());
+
+            // The finished run is saved too, so resuming again just reads it
+            StatsCheckpoint finished = StatsCheckpoint.read(file);
+            assertEquals(16, finished.completedBlocks());
+            PercolationStats again = PercolationStats.resumable(N, T, 31L, 2, EngineKind.SINGLE_UNION_FIND,
+                                                                file, 0L);
+            assertEquals(expected.mean(), again.mean());
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void checkpointedRunMatchesPlainRunOnAnyThreadCount() throws IOException
+    {
+        int N = 12;
+        int T = 2000;
+        PercolationStats expected = new PercolationStats(N, T, 8L, 1, EngineKind.TWO_UNION_FIND);
+
+        int[] threadCounts = { 1, 2, 5 };
+        for (int threads : threadCounts)
+        {
+            File file = File.createTempFile("percolation", ".checkpoint");
+            file.delete();
+            try
+            {
+                // A zero interval saves after every merged block
+                PercolationStats actual = PercolationStats.resumable(N, T, 8L, threads, EngineKind.TWO_UNION_FIND,
+                                                                     file, 0L);
+                assertEquals(expected.mean(), actual.mean());
+                assertEquals(expected.stddev(), actual.stddev());
+                assertEquals(32, StatsCheckpoint.read(file).completedBlocks());
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkpointOfAnotherRunIsRejected() throws IOException
+    {
+        File file = File.createTempFile("percolation", ".checkpoint");
+        try
+        {
+            new StatsCheckpoint(10, 100, 1L, EngineKind.TWO_UNION_FIND, 1, new RunningStats()).write(file);
+            PercolationStats.resumable(10, 100, 2L, 1, EngineKind.TWO_UNION_FIND, file, 0L);
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void trialBudgetAcceptsExponentForm()
+    {
+        assertEquals(10000, PercolationStats.trialCount(1e4));
+        assertEquals(200, PercolationStats.trialCount(Double.parseDouble("200")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fractionalTrialBudgetIsRejected()
+    {
+        PercolationStats.trialCount(12.5);
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for PercolationSweep
+ */
+public class PercolationSweepTest
+{
+    private static final int[] SIZES = { 8, 24, 16 };
+
+    @Test
+    public void trialBudgetMatchesPercolationStats()
+    {
+        PercolationSweep sweep = new PercolationSweep(SIZES, EngineKind.SINGLE_HALVING_UNION_FIND, 7L, 3);
+        PercolationStats[] stats = sweep.runTrials(300, null);
+
+        for (int k = 0; k < SIZES.length; k++)
+        {
+            PercolationStats expected = new PercolationStats(SIZES[k], 300, 7L, 1,
+                                                             EngineKind.SINGLE_HALVING_UNION_FIND);
+            assertEquals(expected.trials(), stats[k].trials());
+            assertEquals(expected.mean(), stats[k].mean());
+            assertEquals(expected.stddev(), stats[k].stddev());
+        }
+    }
+
+    @Test
+    public void accuracyBudgetMatchesPercolationStats()
+    {
+        PercolationSweep sweep = new PercolationSweep(SIZES, EngineKind.TWO_UNION_FIND, 2L, 4);
+        PercolationStats[] stats = sweep.runUntilRelativeError(0.01, 100000, null);
+
+        for (int k = 0; k < SIZES.length; k++)
+        {
+            PercolationStats expected = PercolationStats.untilRelativeError(SIZES[k], 0.01, 100000, 2L, 2,
+                                                                            EngineKind.TWO_UNION_FIND);
+            assertEquals(expected.trials(), stats[k].trials());
+            assertEquals(expected.mean(), stats[k].mean());
+        }
+    }
+
+    @Test
+    public void timeBudgetRunsEverySize()
+    {
+        PercolationSweep sweep = new PercolationSweep(SIZES, EngineKind.TORUS, 3L, 2);
+        PercolationStats[] stats = sweep.runFor(200, null);
+
+        for (PercolationStats s : stats)
+        {
+            assertTrue(s.trials() >= 64);
+            assertEquals(0.59, s.mean(), 0.05);
+        }
+    }
+
+    @Test
+    public void fitRecoversExactScalingForm()
+    {
+        int[] sizes = { 32, 64, 128, 256 };
+        double[] means  = new double[sizes.length];
+        double[] errors = new double[sizes.length];
+        for (int k = 0; k < sizes.length; k++)
+        {
+            means[k]  = 0.5927 - 0.3 * Math.pow(sizes[k], -0.75);
+            errors[k] = 0.001 * (k + 1);
+        }
+
+        double[] fit = PercolationSweep.fit(sizes, means, errors);
+        assertEquals(0.5927, fit[0], 1e-12);
+        assertEquals(-0.3, fit[2], 1e-9);
+        assertTrue(fit[1] > 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fitNeedsTwoSizes()
+    {
+        PercolationSweep.fit(new int[] { 16, 16 }, new double[] { 0.5, 0.6 }, new double[] { 0.1, 0.1 });
+    }
+
+    @Test
+    public void mainSkipsTheFitForSingleTrials() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(bytes, true, "US-ASCII"));
+        try
+        {
+            PercolationSweep.main(new String[] { "1", "42", "2", "TWO_UNION_FIND", "8", "16" });
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+
+        String printed = bytes.toString("US-ASCII");
+        assertTrue(printed.contains("# no fit"));
+        assertFalse(printed.contains("# p_c ="));
+    }
+}
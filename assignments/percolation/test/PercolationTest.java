@@ -12,10 +12,19 @@ import static junit.framework.Assert.assertTrue;
 public class PercolationTest
         //extends TestCase
 {
+    /**
+     * Creates the implementation under test; subclasses override this to
+     * run the same cases against another PercolationEngine.
+     */
+    protected PercolationEngine create(int N)
+    {
+        return new Percolation(N);
+    }
+
     @Test
     public void sizeOfOneWorksProperly()
     {
-        Percolation perc = new Percolation(1);
+        PercolationEngine perc = create(1);
 
         assertFalse(perc.percolates());
 
@@ -27,7 +36,7 @@ public class PercolationTest
     @Test
     public void newPercolationIsAlwaysClosed()
     {
-        Percolation perc = new Percolation(2);
+        PercolationEngine perc = create(2);
 
         assertFalse(perc.isOpen(1, 1));
         assertFalse(perc.isOpen(1, 2));
@@ -38,7 +47,7 @@ public class PercolationTest
     @Test
     public void createPercolation()
     {
-        Percolation perc = new Percolation(13);
+        PercolationEngine perc = create(13);
 
         assertFalse(perc.percolates());
         perc.open(3, 3);
@@ -48,7 +57,7 @@ public class PercolationTest
     @Test
     public void testIsOpenBoundaries()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.open(1, 1);
         perc.open(1, 20);
@@ -64,9 +73,9 @@ public class PercolationTest
     @Test
     public void singleCellField()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
-        Percolation p = new Percolation(1);
+        PercolationEngine p = create(1);
         p.open(1, 1);
 
         assertTrue(p.percolates());
@@ -75,7 +84,7 @@ public class PercolationTest
     @Test
     public void cellPercalates()
     {
-        Percolation perc = new Percolation(1);
+        PercolationEngine perc = create(1);
 
         perc.open(1, 1);
         assertTrue(perc.isFull(1, 1));
@@ -84,7 +93,7 @@ public class PercolationTest
     @Test
     public void testIsFull() throws Exception
     {
-        Percolation perc = new Percolation(5);
+        PercolationEngine perc = create(5);
 
         perc.open(1, 1);
         perc.open(2, 1);
@@ -113,7 +122,7 @@ public class PercolationTest
     @Test
     public void testBackwashPrevention()
     {
-        Percolation perc = new Percolation(3);
+        PercolationEngine perc = create(3);
 
         perc.open(1, 3);
         perc.open(2, 3);
@@ -127,13 +136,13 @@ public class PercolationTest
     @Test(expected = IllegalArgumentException.class)
     public void initialSizeEquals0()
     {
-        Percolation perc = new Percolation(0);
+        PercolationEngine perc = create(0);
     }
 
     @Test(expected = IndexOutOfBoundsException.class)
     public void isOpenOutOfBoundsToTheLowEndOfXAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isOpen(0, 1);
     }
@@ -141,7 +150,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isOpenOutOfBoundsToTheLowEndOfXYAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isOpen(0, 0);
     }
@@ -149,7 +158,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isOpenOutOfBoundsToTheHighEndOfYAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isOpen(1, 0);
     }
@@ -157,7 +166,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isOpenOutOfBoundsToTheHighEndOfXAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isOpen(21, 1);
     }
@@ -165,7 +174,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isFullOutOfBoundsToTheLowEndOfXAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isFull(0, 1);
     }
@@ -173,7 +182,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isFullOutOfBoundsToTheLowEndOfXYAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isFull(0, 0);
     }
@@ -181,7 +190,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isFullOutOfBoundsToTheHighEndOfYAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isFull(1, 0);
     }
@@ -189,7 +198,7 @@ public class PercolationTest
     @Test(expected = IndexOutOfBoundsException.class)
     public void isFullOutOfBoundsToTheHighEndOfXAxis()
     {
-        Percolation perc = new Percolation(20);
+        PercolationEngine perc = create(20);
 
         perc.isFull(21, 1);
     }
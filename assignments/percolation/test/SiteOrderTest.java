@@ -0,0 +1,122 @@
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for SiteOrder
+ */
+public class SiteOrderTest
+{
+    /**
+     * Draws the rest of the order and checks that, together with the sites
+     * already drawn, every site came out exactly once
+     */
+    private static int[] drawAll(SiteOrder order, boolean[] seen)
+    {
+        int[] drawn = new int[order.size() - order.count()];
+        for (int k = 0; k < drawn.length; k++)
+        {
+            assertTrue(order.hasNext());
+            int site = order.next();
+            assertTrue(site >= 0 && site < order.size());
+            assertFalse("site " + site + " drawn twice", seen[site]);
+            seen[site] = true;
+            drawn[k] = site;
+        }
+        assertFalse(order.hasNext());
+        assertEquals(order.size(), order.count());
+        return drawn;
+    }
+
+    @Test
+    public void fullDrawIsAPermutation()
+    {
+        int[] sizes = { 1, 2, 5, 16 };
+        for (int N : sizes)
+        {
+            SiteOrder order = new SiteOrder(N, new SplitMix64(N));
+            assertEquals(N * N, order.size());
+            drawAll(order, new boolean[N * N]);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void drawingPastTheEndFails()
+    {
+        SiteOrder order = new SiteOrder(2, new SplitMix64(1L));
+        drawAll(order, new boolean[4]);
+
+        order.next();
+    }
+
+    @Test
+    public void resetStartsANewPermutationInTheSameArray()
+    {
+        int N = 8;
+        SiteOrder order = new SiteOrder(N, new SplitMix64(2L));
+        for (int k = 0; k < 20; k++)
+        {
+            order.next();
+        }
+
+        // After a partial draw and after a full one
+        for (int round = 0; round < 2; round++)
+        {
+            order.reset(SplitMix64.stream(3L, round));
+            assertEquals(0, order.count());
+            assertTrue(order.hasNext());
+            drawAll(order, new boolean[N * N]);
+        }
+    }
+
+    @Test
+    public void restartMatchesANewOrder()
+    {
+        int N = 6;
+        SiteOrder reused = new SiteOrder(N, new SplitMix64(4L));
+        for (int k = 0; k < 10; k++)
+        {
+            reused.next();
+        }
+
+        reused.restart(SplitMix64.stream(5L, 0));
+        SiteOrder fresh = new SiteOrder(N, SplitMix64.stream(5L, 0));
+        while (fresh.hasNext())
+        {
+            assertEquals(fresh.next(), reused.next());
+        }
+        assertFalse(reused.hasNext());
+    }
+
+    @Test
+    public void ofSizeOrdersItsElements()
+    {
+        SiteOrder order = SiteOrder.ofSize(7, new SplitMix64(6L));
+        assertEquals(7, order.size());
+        drawAll(order, new boolean[7]);
+        assertEquals(1, order.row(6));
+        assertEquals(7, order.col(6));
+    }
+
+    @Test
+    public void rowAndColumnAreOneBased()
+    {
+        SiteOrder order = new SiteOrder(3, new SplitMix64(7L));
+        assertEquals(1, order.row(0));
+        assertEquals(1, order.col(0));
+        assertEquals(2, order.row(5));
+        assertEquals(3, order.col(5));
+        assertEquals(3, order.row(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gridSizeMustBePositive()
+    {
+        new SiteOrder(0, new SplitMix64(1L));
+    }
+}
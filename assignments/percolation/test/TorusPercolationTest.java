@@ -0,0 +1,191 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for TorusPercolation
+ */
+public class TorusPercolationTest
+{
+    @Test
+    public void columnPercolatesOnTorusOnlyOnceTheLoopCloses()
+    {
+        int N = 5;
+        TorusPercolation torus = new TorusPercolation(N, true);
+        for (int i = 1; i < N; i++)
+        {
+            torus.open(i, 3);
+        }
+        assertFalse(torus.percolates());
+        assertFalse(torus.isFull(1, 3));
+
+        torus.open(N, 3);
+        assertTrue(torus.percolates());
+        assertTrue(torus.isFull(2, 3));
+        assertFalse(torus.wrapsHorizontally());
+    }
+
+    @Test
+    public void rowWrapsHorizontallyOnly()
+    {
+        int N = 6;
+        TorusPercolation torus = new TorusPercolation(N, true);
+        for (int j = 1; j <= N; j++)
+        {
+            torus.open(4, j);
+        }
+        assertTrue(torus.wrapsHorizontally());
+        assertFalse(torus.percolates());
+    }
+
+    @Test
+    public void staircaseWrapsBothWays()
+    {
+        int N = 4;
+        TorusPercolation torus = new TorusPercolation(N, true);
+        for (int k = 1; k <= N; k++)
+        {
+            torus.open(k, k);
+            torus.open(k, k % N + 1);
+        }
+        assertTrue(torus.percolates());
+        assertTrue(torus.wrapsHorizontally());
+    }
+
+    @Test
+    public void cylinderSpansAcrossTheSideSeam()
+    {
+        int N = 4;
+        TorusPercolation cylinder = new TorusPercolation(N, false);
+        Percolation walls = new Percolation(N);
+        int[][] path = { { 1, 1 }, { 2, 1 }, { 2, 4 }, { 3, 4 }, { 4, 4 } };
+        for (int[] site : path)
+        {
+            cylinder.open(site[0], site[1]);
+            walls.open(site[0], site[1]);
+        }
+        assertTrue(cylinder.percolates());
+        assertTrue(cylinder.isFull(4, 4));
+        assertFalse(walls.percolates());
+    }
+
+    @Test
+    public void cylinderNeverNeedsMoreSitesThanHardWalls()
+    {
+        for (int trial = 0; trial < 20; trial++)
+        {
+            int N = 16;
+            SiteOrder order = new SiteOrder(N, SplitMix64.stream(4L, trial));
+            TorusPercolation cylinder = new TorusPercolation(N, false);
+            Percolation walls = new Percolation(N);
+            while (!walls.percolates())
+            {
+                int site = order.next();
+                cylinder.open(order.row(site), order.col(site));
+                walls.open(order.row(site), order.col(site));
+                if (walls.percolates()) assertTrue(cylinder.percolates());
+            }
+        }
+    }
+
+    /**
+     * Wrapping found by a breadth-first search that lays each cluster out in
+     * unwrapped coordinates and looks for a site reached at two positions
+     */
+    private static boolean[] wraps(TorusPercolation torus, int N)
+    {
+        boolean[] result = new boolean[2];
+        int[] x = new int[N * N];
+        int[] y = new int[N * N];
+        boolean[] seen = new boolean[N * N];
+        int[] queue = new int[N * N];
+        int[][] steps = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+        for (int start = 0; start < N * N; start++)
+        {
+            if (seen[start] || !torus.isOpen(start / N + 1, start % N + 1)) continue;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            seen[start] = true;
+            x[start] = start % N;
+            y[start] = start / N;
+            while (head < tail)
+            {
+                int site = queue[head++];
+                for (int[] step : steps)
+                {
+                    int nx = x[site] + step[0];
+                    int ny = y[site] + step[1];
+                    int c = ((nx % N) + N) % N;
+                    int r = ((ny % N) + N) % N;
+                    if (!torus.wrapsVertically() && ny != r) continue;
+                    if (!torus.isOpen(r + 1, c + 1)) continue;
+
+                    int next = r * N + c;
+                    if (!seen[next])
+                    {
+                        seen[next] = true;
+                        x[next] = nx;
+                        y[next] = ny;
+                        queue[tail++] = next;
+                    }
+                    else
+                    {
+                        if (x[next] != nx) result[0] = true;
+                        if (y[next] != ny) result[1] = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void wrappingAgreesWithUnwrappedSearch()
+    {
+        for (int trial = 0; trial < 30; trial++)
+        {
+            int N = 3 + trial % 8;
+            TorusPercolation torus = new TorusPercolation(N, true);
+            SiteOrder order = new SiteOrder(N, SplitMix64.stream(11L, trial));
+            while (order.hasNext())
+            {
+                int site = order.next();
+                torus.open(order.row(site), order.col(site));
+
+                boolean[] expected = wraps(torus, N);
+                assertEquals(expected[0], torus.wrapsHorizontally());
+                assertEquals(expected[1], torus.percolates());
+            }
+        }
+    }
+
+    @Test
+    public void resetBlocksEverySite()
+    {
+        TorusPercolation torus = new TorusPercolation(3, true);
+        for (int i = 1; i <= 3; i++)
+        {
+            torus.open(i, 2);
+        }
+        assertTrue(torus.percolates());
+
+        torus.reset();
+        assertFalse(torus.percolates());
+        assertFalse(torus.isOpen(2, 2));
+        torus.open(1, 1);
+        torus.open(2, 1);
+        assertFalse(torus.percolates());
+    }
+
+    @Test
+    public void torusThresholdIsCloseToKnownValue()
+    {
+        PercolationStats stats = new PercolationStats(32, 400, 21L, 2, EngineKind.TORUS);
+        assertEquals(0.5927, stats.mean(), 0.01);
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for TrialArena
+ */
+public class TrialArenaTest
+{
+    /**
+     * Bytes allocated by this thread, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) return -1;
+        return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * A trial on an engine that reallocated its union-find arrays on reset()
+     * would allocate about 2 * 2 * (N^2 + 2) ints; allow the whole run a
+     * small fraction of a single trial's worth for JVM noise.
+     */
+    @Test
+    public void defaultEnginesReuseTheirUnionFindArrays()
+    {
+        int N = 64;
+        for (EngineKind kind : new EngineKind[] { EngineKind.TWO_UNION_FIND, EngineKind.SINGLE_UNION_FIND })
+        {
+            TrialArena arena = new TrialArena(kind, N);
+            for (int trial = 0; trial < 20; trial++)
+            {
+                arena.run(1L, trial);
+            }
+
+            long before = allocatedBytes();
+            if (before < 0) return;
+            for (int trial = 20; trial < 120; trial++)
+            {
+                arena.run(1L, trial);
+            }
+            long allocated = allocatedBytes() - before;
+
+            assertTrue(kind + " allocated " + allocated + " bytes", allocated < N * N);
+        }
+    }
+}
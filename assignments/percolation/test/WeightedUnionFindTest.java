@@ -0,0 +1,79 @@
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+
+/**
+ * Test cases for WeightedUnionFind
+ */
+public class WeightedUnionFindTest
+{
+    @Test
+    public void buildsTheSameTreesAsAlgs4()
+    {
+        SplitMix64 random = new SplitMix64(4L);
+        UnionFind weighted  = new WeightedUnionFind(200);
+        UnionFind reference = new AlgsUnionFind(200);
+
+        for (int k = 0; k < 2000; k++)
+        {
+            int p = random.uniform(200);
+            int q = random.uniform(200);
+            if (random.uniform(2) == 0)
+            {
+                weighted.union(p, q);
+                reference.union(p, q);
+            }
+            assertEquals(reference.find(p), weighted.find(p));
+            assertEquals(reference.find(q), weighted.find(q));
+            assertEquals(reference.count(), weighted.count());
+        }
+    }
+
+    @Test
+    public void linkReturnsTheNewRoot()
+    {
+        UnionFind uf = new WeightedUnionFind(4);
+
+        int root = uf.link(uf.find(0), uf.find(1));
+        assertEquals(0, root);
+        root = uf.link(uf.find(2), root);
+
+        assertEquals(0, root);
+        assertEquals(root, uf.find(2));
+        assertEquals(2, uf.count());
+    }
+
+    @Test
+    public void resetRestoresSingletons()
+    {
+        UnionFind uf = new WeightedUnionFind(5);
+        uf.union(0, 1);
+        uf.union(1, 4);
+
+        uf.reset();
+
+        assertEquals(5, uf.count());
+        for (int p = 0; p < 5; p++)
+        {
+            assertEquals(p, uf.find(p));
+        }
+
+        // Sizes start over too: 0 held three elements, now it is the smaller root
+        uf.union(2, 3);
+        uf.union(0, 3);
+        assertTrue(uf.connected(0, 2));
+        assertEquals(2, uf.find(0));
+        assertFalse(uf.connected(1, 2));
+    }
+
+    @Test
+    public void kindsBuildTheirOwnImplementation()
+    {
+        assertTrue(UnionFindKind.ALGS4.create(3) instanceof AlgsUnionFind);
+        assertTrue(UnionFindKind.WEIGHTED.create(3) instanceof WeightedUnionFind);
+        assertTrue(UnionFindKind.HALVING.create(3) instanceof HalvingUnionFind);
+    }
+}